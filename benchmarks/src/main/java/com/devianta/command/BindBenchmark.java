@@ -0,0 +1,63 @@
+package com.devianta.command;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bind of parsed line to command with many named arguments
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BindBenchmark {
+
+    @Param({ "1", "8", "32" })
+    private int named;
+
+    private Command command;
+    private String line;
+    private ArgParser parser;
+    private LineArgs parsed;
+    private LineArgs args;
+
+    @Setup
+    public void setup() {
+        command = new Command("cmd", "benchmark command", (cli, invocation) -> {
+        });
+        StringBuilder sb = new StringBuilder("cmd free");
+        command.addArgument(new Argument<String>("free argument", true));
+        for (int i = 0; i < named; i++) {
+            command.addArgument(new Argument<String>("named argument " + i, false).setName("a" + i, "arg" + i));
+            sb.append(i % 2 == 0 ? " -a" : " --arg").append(i).append(" value").append(i);
+        }
+        line = sb.toString();
+        parser = new ScanParser();
+        parsed = parser.parse(line);
+        args = new LineArgs();
+    }
+
+    @Benchmark
+    public Invocation bind() {
+        return command.bind(parsed);
+    }
+
+    @Benchmark
+    public Invocation parseAndBind() {
+        return command.bind(parser.parse(line, args));
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.devianta.command;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converter and validator chains of argument value. Values are filled in
+ * invocation arrays as by bind, bad values return Validation without
+ * exception.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConvertBenchmark {
+
+    private Argument<String> identity;
+    private Argument<String> flag;
+    private Argument<Integer> integer;
+    private Argument<Integer> positive;
+    private IntArgument primitive;
+    private String line;
+    private final Object[] values = new Object[1];
+    private final long[] primitives = new long[1];
+
+    @Setup
+    public void setup() {
+        identity = new Argument<String>("string", false).setName("s", "string");
+        flag = new Argument<String>("flag", false).setName("f", "flag").setValidator(new EmptyArgumentValidator());
+        integer = new Argument<Integer>("integer", false).setName("i", "integer")
+                .setConverter(new ConvertToInteger());
+        positive = new Argument<Integer>("positive", false).setName("p", "positive")
+                .setConverter(new ConvertToInteger()).setValidator(new ValidatePositiveInteger());
+        primitive = new IntArgument("primitive", false).setName("n", "primitive")
+                .setIntValidator(new ValidatePositiveInteger());
+        line = "cmd --primitive 123456 -1 12x456";
+    }
+
+    @Benchmark
+    public Object identity() {
+        identity.fill("value", 0, 5, false, values, primitives, 0);
+        return values[0];
+    }
+
+    @Benchmark
+    public Object emptyValidator() {
+        flag.fill("", 0, 0, false, values, primitives, 0);
+        return values[0];
+    }
+
+    @Benchmark
+    public Object converter() {
+        integer.fill("123456", 0, 6, false, values, primitives, 0);
+        return values[0];
+    }
+
+    @Benchmark
+    public Object converterAndValidator() {
+        positive.fill("123456", 0, 6, false, values, primitives, 0);
+        return values[0];
+    }
+
+    @Benchmark
+    public long primitiveConverterAndValidator() {
+        primitive.fill(line, 16, 22, false, values, primitives, 0);
+        return primitives[0];
+    }
+
+    @Benchmark
+    public Validation failedValidation() {
+        return positive.fill("-1", 0, 2, false, values, primitives, 0);
+    }
+
+    @Benchmark
+    public Validation failedConversion() {
+        return integer.fill("12x456", 0, 6, false, values, primitives, 0);
+    }
+
+    @Benchmark
+    public Validation primitiveFailedValidation() {
+        return primitive.fill(line, 23, 25, false, values, primitives, 0);
+    }
+
+    @Benchmark
+    public Validation primitiveFailedConversion() {
+        return primitive.fill(line, 26, 32, false, values, primitives, 0);
+    }
+
+}
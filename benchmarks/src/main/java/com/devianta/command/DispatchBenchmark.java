@@ -0,0 +1,91 @@
+package com.devianta.command;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sequential and parallel dispatch of bound command, output is dropped
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+    private static final int BURST = 64;
+
+    private CLI cli;
+    private ExecutorService pool;
+    private Invocation invocation;
+    private String line;
+    private final CompletableFuture<?>[] burst = new CompletableFuture<?>[BURST];
+
+    @Setup
+    public void setup() {
+        pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        cli = new CLI().setOutput(chunk -> {
+        }).setExecutor(pool);
+        Command command = new Command("echo", "print argument", (c, invocation) -> {
+            invocation.getOutput().println(invocation.getArg(0));
+        });
+        command.addArgument(new Argument<String>("text", true));
+        cli.addCommand(command);
+        line = "echo hello";
+        invocation = command.bind(cli.parse(line, new LineArgs()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public void sequential() {
+        cli.start(invocation, cli.getSequentialExecutor()).join();
+    }
+
+    @Benchmark
+    public void parallel() {
+        cli.start(invocation, cli.getParallelExecutor()).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void parallelBurst() {
+        for (int i = 0; i < BURST; i++) {
+            burst[i] = cli.start(invocation, cli.getParallelExecutor());
+        }
+        CompletableFuture.allOf(burst).join();
+    }
+
+    @Benchmark
+    public void parseBindSequential(LineState state) {
+        LineArgs args = cli.parse(line, state.args);
+        cli.start(cli.find(args).bind(args), cli.getSequentialExecutor()).join();
+    }
+
+    /**
+     * Reused line arguments of benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class LineState {
+        private final LineArgs args = new LineArgs();
+    }
+
+}
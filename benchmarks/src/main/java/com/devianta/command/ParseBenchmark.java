@@ -0,0 +1,76 @@
+package com.devianta.command;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parse of plain, quoted and numeric-heavy lines by scanning and regex
+ * parsers, and by scanning parser behind parse cache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+
+    @Param({ "plain", "quoted", "numeric" })
+    private String kind;
+
+    @Param({ "scan", "regex", "cached" })
+    private String parser;
+
+    private String line;
+    private ArgParser argParser;
+    private LineArgs args;
+
+    @Setup
+    public void setup() {
+        switch (kind) {
+        case "plain":
+            line = "copy source.txt target.txt --mode fast -v --retries 3";
+            break;
+        case "quoted":
+            line = "echo \"hello world\" --title \"a quoted \"\"title\"\"\" -m \"\" \"last word\"";
+            break;
+        default:
+            line = "sum 1 -2 3.5 4e10 -0x1p3 --from -7 --to 1e-3 --step 0.25 NaN";
+            break;
+        }
+        switch (parser) {
+        case "scan":
+            argParser = new ScanParser();
+            break;
+        case "cached":
+            argParser = new CachingParser(new ScanParser(), 1024);
+            break;
+        default:
+            argParser = new Parser();
+            break;
+        }
+        args = new LineArgs();
+    }
+
+    @Benchmark
+    public LineArgs parseNew() {
+        return argParser.parse(line);
+    }
+
+    @Benchmark
+    public LineArgs parseReused() {
+        return argParser.parse(line, args);
+    }
+
+}
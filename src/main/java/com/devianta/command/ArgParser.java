@@ -10,4 +10,13 @@ interface ArgParser {
      */
     public LineArgs parse(String line);
 
+    /**
+     * Parse line into reusable LineArgs, previous content of args is cleared
+     * 
+     * @param line
+     * @param args
+     * @return
+     */
+    public LineArgs parse(String line, LineArgs args);
+
 }
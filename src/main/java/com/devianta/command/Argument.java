@@ -1,14 +1,24 @@
 package com.devianta.command;
 
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class Argument<T> {
-    private T value;
+    private static final Validation NOT_READABLE = Validation.fail(BindError.Code.NOT_CONVERTED, "Value \"",
+            "\" is not a readable file");
+
+
     private String description;
     private boolean required;
     private String shortName = "";
     private String fullName = "";
     private Validator<T> validator;
     private Converter<T> converter;
-    private boolean filled = false;
+    private FileConverter<T> fileConverter;
 
     public Argument(String description, boolean required) {
         super();
@@ -50,27 +60,152 @@ public class Argument<T> {
         return this;
     }
 
-    // setters
+    /**
+     * Set converter of file references. Without it file is read as UTF-8
+     * text without the last line break and converted as value from line.
+     * 
+     * @param fileConverter
+     * @return
+     */
+    public Argument<T> setFileConverter(FileConverter<T> fileConverter) {
+        this.fileConverter = fileConverter;
+        return this;
+    }
+
+    // conversion
+
+    /**
+     * Convert and validate value which is region of source without exception
+     * and put it in invocation arrays. Exceptions of converter and validator
+     * which don't implement check are adapted.
+     * 
+     * @param source
+     * @param from
+     * @param to
+     * @param values
+     * @param primitives
+     * @param slot
+     * @return
+     * @throws ClassCastException
+     */
+    protected Validation tryFill(String source, int from, int to, Object[] values, long[] primitives, int slot)
+            throws ClassCastException {
+        String value = source.substring(from, to);
+        Converter<T> current = getConverter();
+        Validation result = current.check(value);
+        if (!result.isValid()) {
+            return result;
+        }
+        T converted;
+        try {
+            converted = current.convert(value);
+        } catch (IllegalArgumentException e) {
+            return Validation.fail(BindError.Code.NOT_CONVERTED, e.getMessage());
+        }
+        try {
+            return tryPut(converted, values, primitives, slot);
+        } catch (ClassCastException e) {
+            throw converterNotSet(value);
+        }
+    }
+
+    /**
+     * Convert and validate file of reference and put value in invocation
+     * arrays. File is passed to file converter, without file converter its
+     * text is converted as value from line.
+     * 
+     * @param file
+     * @param values
+     * @param primitives
+     * @param slot
+     * @return
+     */
+    protected Validation tryFillFile(FileValue file, Object[] values, long[] primitives, int slot) {
+        if (fileConverter == null) {
+            String text;
+            try {
+                text = trimLineBreak(file.readString(StandardCharsets.UTF_8));
+            } catch (UncheckedIOException | IllegalArgumentException e) {
+                return Validation.fail(BindError.Code.NOT_CONVERTED, e.getMessage());
+            }
+            return tryFill(text, 0, text.length(), values, primitives, slot);
+        }
+        T converted;
+        try {
+            converted = fileConverter.convert(file);
+        } catch (UncheckedIOException | IllegalArgumentException e) {
+            return Validation.fail(BindError.Code.NOT_CONVERTED, e.getMessage());
+        }
+        return tryPut(converted, values, primitives, slot);
+    }
 
-    protected void setValue(String value) throws IllegalArgumentException, NullPointerException, ClassCastException {
-        checkConverter();
-        this.value = converter.convert(value);
+    /**
+     * Validate converted value and put it in invocation arrays
+     * 
+     * @param converted
+     * @param values
+     * @param primitives
+     * @param slot
+     * @return
+     * @throws ClassCastException
+     */
+    protected Validation tryPut(T converted, Object[] values, long[] primitives, int slot)
+            throws ClassCastException {
+        Validation result = validator.check(converted);
+        if (result.isValid()) {
+            values[slot] = converted;
+        }
+        return result;
+    }
 
+    /**
+     * Fill value which is region of source, region of file reference starts
+     * with {@link CLIParam#FILE_PREFIX}. Existence of file is checked, file
+     * is opened by conversion.
+     */
+    final Validation fill(String source, int from, int to, boolean file, Object[] values, long[] primitives,
+            int slot) {
+        if (!file) {
+            return tryFill(source, from, to, values, primitives, slot);
+        }
+        Path path;
         try {
-            if (!validator.validate(this.value)) {
-                throw new IllegalArgumentException("Value \"" + value + "\" validation  failed");
+            path = Paths.get(source.substring(from + 1, to));
+        } catch (InvalidPathException e) {
+            return NOT_READABLE;
+        }
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            return NOT_READABLE;
+        }
+        return tryFillFile(new FileValue(path), values, primitives, slot);
+    }
+
+    private static String trimLineBreak(String text) {
+        int length = text.length();
+        if (length > 0 && text.charAt(length - 1) == '\n') {
+            length--;
+            if (length > 0 && text.charAt(length - 1) == '\r') {
+                length--;
             }
-        } catch (ClassCastException e) {
-            throw new ClassCastException(
-                    "Converter in argument: \"" + getFullName() + "(" + getShortName() + ")" + "\" with value: \"" + value + "\" should be set");
         }
+        return text.substring(0, length);
+    }
 
-        this.filled = true;
+    private ClassCastException converterNotSet(String value) {
+        return new ClassCastException("Converter in argument: \"" + getFullName() + "(" + getShortName() + ")"
+                + "\" with value: \"" + value + "\" should be set");
     }
 
-    protected void clearValue() {
-        this.value = null;
-        this.filled = false;
+    /**
+     * Return value put by tryFill
+     * 
+     * @param values
+     * @param primitives
+     * @param slot
+     * @return
+     */
+    protected Object value(Object[] values, long[] primitives, int slot) {
+        return values[slot];
     }
 
     // Check fields
@@ -83,10 +218,11 @@ public class Argument<T> {
     }
 
     @SuppressWarnings("unchecked")
-    private void checkConverter() throws NullPointerException {
+    private Converter<T> getConverter() {
         if (converter == null) {
-            converter = (n) -> ((T) n);
+            return (n) -> ((T) n);
         }
+        return converter;
     }
 
     // Check parameters
@@ -98,24 +234,29 @@ public class Argument<T> {
         return false;
     }
 
-    public boolean isFilled() {
-        return filled;
-    }
-
     protected boolean isRequired() {
         return required;
     }
 
+    /**
+     * Return true if value is kept in primitives array of invocation
+     * 
+     * @return
+     */
+    protected boolean isPrimitive() {
+        return false;
+    }
+
     // Check names
 
-    protected boolean isEqualsName(String name) {
+    protected boolean isEqualsName(CharSequence name) {
         if (isFree()) {
             return false;
         }
-        if (isShortName() && getShortName().equals(name)) {
+        if (isShortName() && getShortName().contentEquals(name)) {
             return true;
         }
-        if (isFullName() && getFullName().equals(name)) {
+        if (isFullName() && getFullName().contentEquals(name)) {
             return true;
         }
         return false;
@@ -131,11 +272,11 @@ public class Argument<T> {
 
     // get parameters
 
-    private String getShortName() {
+    protected String getShortName() {
         return shortName;
     }
 
-    private String getFullName() {
+    protected String getFullName() {
         return fullName;
     }
 
@@ -143,12 +284,6 @@ public class Argument<T> {
         return description;
     }
 
-    // get values
-
-    protected T getValue() {
-        return value;
-    }
-
     // Overrides
 
     @Override
@@ -0,0 +1,103 @@
+package com.devianta.command;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * OutputSink with background writer thread. Chunks are queued and written to
+ * target sink in order, writer thread joins queued chunks into one write.
+ */
+public class AsyncSink implements OutputSink, Closeable {
+    /**
+     * Default count of queued chunks, writing waits when queue is full
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final String STOP = new String();
+
+    private final OutputSink target;
+    private final BlockingQueue<String> queue;
+    private final Thread writer;
+
+    /**
+     * New sink with default capacity
+     * 
+     * @param target
+     */
+    public AsyncSink(OutputSink target) {
+        this(target, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * New sink
+     * 
+     * @param target
+     * @param capacity
+     */
+    public AsyncSink(OutputSink target, int capacity) {
+        super();
+        this.target = target;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "cli-output");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void write(String chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            target.write(chunk);
+        }
+    }
+
+    private void drain() {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        try {
+            while (true) {
+                chunks.add(queue.take());
+                queue.drainTo(chunks);
+                boolean stop = false;
+                for (String chunk : chunks) {
+                    if (chunk == STOP) {
+                        stop = true;
+                        break;
+                    }
+                    sb.append(chunk);
+                }
+                chunks.clear();
+                if (sb.length() > 0) {
+                    target.write(sb.toString());
+                    sb.setLength(0);
+                }
+                if (stop) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // sink is closed
+        }
+    }
+
+    /**
+     * Write queued chunks and stop writer thread
+     */
+    @Override
+    public void close() {
+        try {
+            queue.put(STOP);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
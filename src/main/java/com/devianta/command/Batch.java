@@ -0,0 +1,248 @@
+package com.devianta.command;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Non-interactive execution of command lines from file, stdin or Reader.
+ * Prompts are not printed, failed lines are collected in BatchReport.
+ */
+public class Batch {
+    /**
+     * Default count of lines executed at the same time in parallel mode
+     */
+    public static final int DEFAULT_WINDOW = 256;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final CLI cli;
+    private boolean failFast = false;
+    private boolean parallel = false;
+    private int window = DEFAULT_WINDOW;
+
+    /**
+     * New Batch with commands of CLI
+     *
+     * @param cli
+     */
+    public Batch(CLI cli) {
+        super();
+        this.cli = cli;
+    }
+
+    // Chain setters
+
+    /**
+     * Stop batch at first failed line. By default all lines are executed
+     * (continue mode).
+     *
+     * @param failFast
+     * @return
+     */
+    public Batch failFast(boolean failFast) {
+        this.failFast = failFast;
+        return this;
+    }
+
+    /**
+     * Run every line in parallel executor of CLI. Lines should be independent
+     * from each other.
+     *
+     * @param parallel
+     * @return
+     */
+    public Batch inParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Set count of lines executed at the same time, reading waits when window
+     * is full
+     *
+     * @param window
+     * @return
+     */
+    public Batch setWindow(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window should be positive");
+        }
+        this.window = window;
+        return this;
+    }
+
+    // Run
+
+    /**
+     * Run lines from file
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public BatchReport run(Path file) throws IOException, InterruptedException {
+        try (ChannelLineSource source = new ChannelLineSource(FileChannel.open(file), StandardCharsets.UTF_8,
+                BUFFER_SIZE)) {
+            return run(source);
+        }
+    }
+
+    /**
+     * Run lines from stream, for example System.in
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public BatchReport run(InputStream in) throws IOException, InterruptedException {
+        return run(new ChannelLineSource(Channels.newChannel(in), Charset.defaultCharset(), BUFFER_SIZE));
+    }
+
+    /**
+     * Run lines from reader
+     *
+     * @param reader
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public BatchReport run(Reader reader) throws IOException, InterruptedException {
+        BufferedReader in = (reader instanceof BufferedReader) ? (BufferedReader) reader
+                : new BufferedReader(reader, BUFFER_SIZE);
+        return run(in::readLine);
+    }
+
+    /**
+     * Run lines from source. Empty lines and lines started with '#' are
+     * skipped.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public BatchReport run(LineSource in) throws IOException, InterruptedException {
+        BatchReport report = new BatchReport();
+        Semaphore inFlight = new Semaphore(window);
+        LineArgs params = new LineArgs();
+        long start = System.nanoTime();
+
+        try {
+            String str;
+            int number = 0;
+            while (!cli.isQuit() && !(failFast && report.hasFailures()) && (str = in.readLine()) != null) {
+                number += 1;
+                String trimmed = str.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                report.lineStarted();
+                runLine(str, number, params, inFlight, report);
+            }
+        } finally {
+            // wait for lines in progress
+            inFlight.acquireUninterruptibly(window);
+            inFlight.release(window);
+            report.finish(System.nanoTime() - start, failFast && report.hasFailures());
+        }
+        return report;
+    }
+
+    private void runLine(String str, int number, LineArgs params, Semaphore inFlight, BatchReport report)
+            throws InterruptedException {
+        List<String> stages;
+        try {
+            stages = Pipeline.split(str);
+        } catch (IllegalArgumentException e) {
+            report.fail(number, str, e.getMessage());
+            return;
+        }
+        if (stages.size() > 1) {
+            runPipeline(str, number, stages, params, inFlight, report);
+            return;
+        }
+
+        Command command;
+        try {
+            long start = System.nanoTime();
+            command = cli.find(cli.parse(str, params));
+            command.stats().record(CommandStats.Phase.PARSE, System.nanoTime() - start);
+        } catch (IllegalArgumentException e) {
+            report.fail(number, str, e.getMessage());
+            return;
+        }
+        BindResult bound = command.tryBind(params);
+        if (!bound.isOk()) {
+            report.fail(number, str, bound.getMessage());
+            return;
+        }
+        Invocation invocation = bound.getInvocation();
+
+        boolean background = parallel || invocation.getCommand().isParallelThread();
+        Executor executor = background ? cli.getParallelExecutor() : cli.getSequentialExecutor();
+
+        inFlight.acquire();
+        CompletableFuture<Void> future;
+        try {
+            future = cli.start(invocation, executor);
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            invocation.getCommand().stats().rejected();
+            report.fail(number, str, "Command \"" + invocation.getCommand() + "\" rejected");
+            return;
+        }
+        future.whenComplete((r, e) -> {
+            inFlight.release();
+            if (e != null) {
+                report.fail(number, str, CLI.message(invocation.getCommand(), e));
+            }
+        });
+
+        if (!background) {
+            future.exceptionally(e -> null).join();
+        }
+    }
+
+    private void runPipeline(String str, int number, List<String> stages, LineArgs params, Semaphore inFlight,
+            BatchReport report) throws InterruptedException {
+        List<Invocation> invocations;
+        try {
+            invocations = cli.bindPipeline(stages, params);
+        } catch (IllegalArgumentException e) {
+            report.fail(number, str, e.getMessage());
+            return;
+        }
+
+        inFlight.acquire();
+        List<CompletableFuture<Void>> futures = Pipeline.start(cli, invocations, cli.getPipeCapacity(), null);
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        all.whenComplete((r, e) -> {
+            inFlight.release();
+            for (int i = 0; i < futures.size(); i++) {
+                Throwable failure = futures.get(i).handle((v, x) -> x).join();
+                if (failure != null && Pipeline.isFailure(failure)) {
+                    report.fail(number, str, CLI.message(invocations.get(i).getCommand(), failure));
+                    return;
+                }
+            }
+        });
+
+        if (!parallel) {
+            all.exceptionally(e -> null).join();
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.devianta.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Result of Batch run: line counters, throughput and failed lines
+ */
+public final class BatchReport {
+    private int lines;
+    private int failed;
+    private long elapsedNanos;
+    private boolean stopped;
+    private final List<Failure> failures = new ArrayList<>();
+
+    BatchReport() {
+        super();
+    }
+
+    // Collectors, called from command threads
+
+    synchronized void lineStarted() {
+        lines += 1;
+    }
+
+    synchronized void fail(int lineNumber, String line, String message) {
+        failed += 1;
+        failures.add(new Failure(lineNumber, line, message));
+    }
+
+    synchronized boolean hasFailures() {
+        return failed > 0;
+    }
+
+    synchronized void finish(long elapsedNanos, boolean stopped) {
+        this.elapsedNanos = elapsedNanos;
+        this.stopped = stopped;
+        Collections.sort(failures, Comparator.comparingInt(Failure::getLineNumber));
+    }
+
+    // Getters
+
+    /**
+     * Return count of executed lines, empty lines and comments are not counted
+     *
+     * @return
+     */
+    public synchronized int getLines() {
+        return lines;
+    }
+
+    /**
+     * Return count of failed lines
+     *
+     * @return
+     */
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Return true if batch was stopped by first failure
+     *
+     * @return
+     */
+    public synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Return batch time in nanoseconds
+     *
+     * @return
+     */
+    public synchronized long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Return executed lines per second
+     *
+     * @return
+     */
+    public synchronized double getThroughput() {
+        return elapsedNanos == 0 ? 0 : lines * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Return failed lines ordered by line number
+     *
+     * @return
+     */
+    public synchronized List<Failure> getFailures() {
+        return Collections.unmodifiableList(new ArrayList<>(failures));
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Lines: ").append(lines).append(", failed: ").append(failed);
+        sb.append(String.format(", time: %.3f s, throughput: %.1f lines/s", elapsedNanos / 1e9, getThroughput()));
+        if (stopped) {
+            sb.append(", stopped at first failure");
+        }
+        for (Failure failure : failures) {
+            sb.append(System.lineSeparator()).append(failure);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Failed line of batch
+     */
+    public static final class Failure {
+        private final int lineNumber;
+        private final String line;
+        private final String message;
+
+        Failure(int lineNumber, String line, String message) {
+            super();
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return " line " + lineNumber + ": " + line + System.lineSeparator() + "   " + message;
+        }
+    }
+
+}
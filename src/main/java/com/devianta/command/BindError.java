@@ -0,0 +1,113 @@
+package com.devianta.command;
+
+/**
+ * Error of argument binding. Message is formatted when it is requested.
+ */
+public final class BindError {
+
+    /**
+     * Kind of binding error
+     */
+    public enum Code {
+        /** Count of free arguments is out of bounds */
+        ARGUMENTS_AMOUNT,
+        /** Required named argument is absent */
+        REQUIRED_MISSING,
+        /** Named argument is not defined in command */
+        UNEXPECTED_ARGUMENT,
+        /** Value can't be converted */
+        NOT_CONVERTED,
+        /** Converted value is not valid */
+        NOT_VALID
+    }
+
+    private final Code code;
+    private final Argument<?> argument;
+    private final Validation validation;
+    private final String source;
+    private final int from;
+    private final int to;
+    private String message;
+
+    private BindError(Code code, Argument<?> argument, Validation validation, String source, int from, int to) {
+        super();
+        this.code = code;
+        this.argument = argument;
+        this.validation = validation;
+        this.source = source;
+        this.from = from;
+        this.to = to;
+    }
+
+    static BindError amount() {
+        return new BindError(Code.ARGUMENTS_AMOUNT, null, null, "", 0, 0);
+    }
+
+    static BindError required(Argument<?> argument) {
+        return new BindError(Code.REQUIRED_MISSING, argument, null, "", 0, 0);
+    }
+
+    static BindError unexpected(String source, int from, int to) {
+        return new BindError(Code.UNEXPECTED_ARGUMENT, null, null, source, from, to);
+    }
+
+    static BindError value(Argument<?> argument, Validation validation, String source, int from, int to) {
+        return new BindError(validation.getCode(), argument, validation, source, from, to);
+    }
+
+    // Getters
+
+    public Code getCode() {
+        return code;
+    }
+
+    /**
+     * Return argument of error or null if error is not about defined
+     * argument
+     * 
+     * @return
+     */
+    public Argument<?> getArgument() {
+        return argument;
+    }
+
+    /**
+     * Return value or name from line
+     * 
+     * @return
+     */
+    public String getValue() {
+        return source.substring(from, to);
+    }
+
+    /**
+     * Return message, message is the same as in thrown exception
+     * 
+     * @return
+     */
+    public String getMessage() {
+        if (message == null) {
+            switch (code) {
+            case ARGUMENTS_AMOUNT:
+                message = "Unsupported arguments amount";
+                break;
+            case REQUIRED_MISSING:
+                message = "Required argument \"" + argument + "\" hasn't finded";
+                break;
+            case UNEXPECTED_ARGUMENT:
+                message = "Unexpected argument \"" + getValue() + "\"";
+                break;
+            default:
+                message = validation.format(getValue());
+                break;
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+
+}
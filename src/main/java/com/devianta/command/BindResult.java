@@ -0,0 +1,68 @@
+package com.devianta.command;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of binding without exception: Invocation or all errors of line
+ */
+public final class BindResult {
+    private final Invocation invocation;
+    private final List<BindError> errors;
+
+    BindResult(Invocation invocation) {
+        super();
+        this.invocation = invocation;
+        this.errors = Collections.emptyList();
+    }
+
+    BindResult(List<BindError> errors) {
+        super();
+        this.invocation = null;
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    // Getters
+
+    public boolean isOk() {
+        return invocation != null;
+    }
+
+    /**
+     * Return bound Invocation or null if there are errors
+     * 
+     * @return
+     */
+    public Invocation getInvocation() {
+        return invocation;
+    }
+
+    /**
+     * Return errors in order of line check: arguments amount, required
+     * arguments, unexpected names, values
+     * 
+     * @return
+     */
+    public List<BindError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Return messages of all errors, one per line
+     * 
+     * @return
+     */
+    public String getMessage() {
+        StringBuilder sb = new StringBuilder();
+        for (BindError error : errors) {
+            sb.append(sb.length() == 0 ? "" : System.lineSeparator()).append(error.getMessage());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return isOk() ? invocation.toString() : getMessage();
+    }
+
+}
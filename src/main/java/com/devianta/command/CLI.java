@@ -1,31 +1,125 @@
 package com.devianta.command;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CLI implements Runnable, CommandRun {
-    private Scanner sc;
-    private String name;
-    private String inform;
-    private String finSymbol;
-    private Map<String, Command> commandPull = new HashMap<>();
-    private Map<String, String[]> synonyms = new HashMap<>();
-    private List<String> history = new ArrayList<>();
-    private boolean quit = false;
+    /**
+     * Default queue depth of parallel commands pool
+     */
+    public static final int DEFAULT_QUEUE_DEPTH = 1024;
+    /**
+     * Default size of command output buffer
+     */
+    public static final int DEFAULT_OUTPUT_THRESHOLD = 64 * 1024;
+    /**
+     * Default count of lines in pipe between commands
+     */
+    public static final int DEFAULT_PIPE_CAPACITY = 1024;
+    /**
+     * Count of names in message of ambiguous command
+     */
+    private static final int MAX_COMPLETIONS = 10;
+    private static final Executor INLINE = Runnable::run;
+
+    // settings can be changed by commands while CLI thread reads them
+    private volatile LineSource lineSource;
+    private OutputSink sink;
+    private AsyncSink asyncSink;
+    private volatile int outputThreshold = DEFAULT_OUTPUT_THRESHOLD;
+    private volatile int pipeCapacity = DEFAULT_PIPE_CAPACITY;
+    private volatile ArgParser parser;
+    private volatile boolean fileReferences = false;
+    // false in sessions of remote clients without access to files of host
+    private final boolean fileAccess;
+    private final LineArgs lineArgs = new LineArgs();
+    private volatile String name;
+    private volatile String inform;
+    private volatile String finSymbol;
+    private final CommandRegistry registry;
+    private History history = new History();
+    private final JobTable jobs = new JobTable();
+    private volatile boolean quit = false;
+    private volatile Executor sequentialExecutor = INLINE;
+    private volatile long defaultTimeout = 0;
+    private ExecutorService parallelExecutor;
+    private boolean ownExecutor;
 
     /**
      * Create CLI object with default setting
      */
     public CLI() {
         super();
+        this.parser = new ScanParser();
+        this.fileAccess = true;
+        this.registry = new CommandRegistry();
         setDefaultSetting();
     }
 
+    /**
+     * New session of root CLI. Commands, parser, executors and settings are
+     * shared with root CLI, prompt, history, jobs and quit flag are own.
+     * Session without file access doesn't see commands which access files
+     * and doesn't read file references.
+     * 
+     * @param root
+     * @param sink
+     *            output of session
+     * @param fileAccess
+     */
+    CLI(CLI root, OutputSink sink, boolean fileAccess) {
+        super();
+        this.name = root.name;
+        this.inform = root.inform;
+        this.finSymbol = root.finSymbol;
+        this.sink = sink;
+        this.outputThreshold = root.outputThreshold;
+        this.pipeCapacity = root.pipeCapacity;
+        this.fileAccess = fileAccess;
+        this.parser = root.parser;
+        this.fileReferences = root.fileReferences;
+        if (!fileAccess && fileReferences) {
+            ArgParser current = root.parser;
+            setParser((current instanceof CachingParser) ? ((CachingParser) current).capacity() : 0, false);
+            this.fileReferences = false;
+        }
+        this.registry = root.registry;
+        this.history = new History(root.getHistory().capacity());
+        this.sequentialExecutor = root.sequentialExecutor;
+        this.defaultTimeout = root.defaultTimeout;
+        this.parallelExecutor = root.getParallelExecutor();
+        this.ownExecutor = false;
+    }
+
     private final void setDefaultSetting() {
         name = "";
         inform = "";
@@ -33,6 +127,9 @@ public class CLI implements Runnable, CommandRun {
         setQuitCommand();
         setHistoryCommand();
         setHelpCommand();
+        setScriptCommand();
+        setStatsCommand();
+        setJobCommands();
     }
 
     private final void setQuitCommand() {
@@ -52,14 +149,53 @@ public class CLI implements Runnable, CommandRun {
         String desc = "Show command history";
         Command command = new Command("history", desc, this);
         desc = "takes value n - positive integer, show last n parameter";
-        command.addArgument(new Argument<Integer>(desc, false).setName("t", "tail").setConverter(new ConvertToInteger())
-                .setValidator(new ValidatePositiveInteger()));
+        command.addArgument(
+                new IntArgument(desc, false).setName("t", "tail").setIntValidator(new ValidatePositiveInteger()));
         command.addArgument(new Argument<String>("clear history", false).setName("c", "clear")
                 .setValidator(new EmptyArgumentValidator()));
+        command.addArgument(new Argument<String>("show lines contained text", false).setName("s", "search"));
+        command.addArgument(new Argument<String>("show lines started with text", false).setName("p", "prefix"));
+        command.addArgument(
+                new Argument<String>("show the most recent line contained text", false).setName("r", "reverse"));
 
         this.addCommand(command);
     }
 
+    private final void setScriptCommand() {
+        String desc = "Run commands from file without prompts";
+        Command command = new Command("script", desc, this).setFileAccess(true);
+        command.addArgument(new Argument<String>("path to script file", true));
+        command.addArgument(new Argument<String>("stop at first failed line", false).setName("f", "fail-fast")
+                .setValidator(new EmptyArgumentValidator()));
+        command.addArgument(new Argument<String>("run all lines, default mode", false).setName("c", "continue")
+                .setValidator(new EmptyArgumentValidator()));
+        command.addArgument(new Argument<String>("run independent lines in parallel", false)
+                .setName("p", "parallel").setValidator(new EmptyArgumentValidator()));
+
+        this.addCommand(command);
+    }
+
+    private final void setStatsCommand() {
+        String desc = "Show command counters and latency percentiles";
+        Command command = new Command("stats", desc, this);
+        command.addArgument(new Argument<String>("command name, all used commands by default", false));
+
+        this.addCommand(command);
+    }
+
+    private final void setJobCommands() {
+        this.addCommand(new Command("jobs", "Show background jobs", this));
+
+        Command wait = new Command("wait", "Wait for background job, all jobs by default", this);
+        wait.setTimeout(0, TimeUnit.SECONDS);
+        wait.addArgument(new IntArgument("job id", false));
+        this.addCommand(wait);
+
+        Command kill = new Command("kill", "Interrupt background job", this);
+        kill.addArgument(new IntArgument("job id", true));
+        this.addCommand(kill);
+    }
+
     // Chain setters
 
     /**
@@ -95,6 +231,206 @@ public class CLI implements Runnable, CommandRun {
         return this;
     }
 
+    /**
+     * Set source of input lines, by default lines are read from System.in
+     * 
+     * @param lineSource
+     * @return
+     */
+    public CLI setLineSource(LineSource lineSource) {
+        this.lineSource = lineSource;
+        return this;
+    }
+
+    /**
+     * Set sink of CLI and commands output, by default output is written to
+     * System.out
+     * 
+     * @param sink
+     * @return
+     */
+    public synchronized CLI setOutput(OutputSink sink) {
+        this.sink = sink;
+        return this;
+    }
+
+    /**
+     * Write output in background thread, sink is closed when CLI is finished
+     * 
+     * @return
+     */
+    public synchronized CLI useAsyncOutput() {
+        if (asyncSink == null) {
+            asyncSink = new AsyncSink(getSink());
+            sink = asyncSink;
+        }
+        return this;
+    }
+
+    /**
+     * Set size of command output buffer, buffer is written to sink when it is
+     * full or when command is finished
+     * 
+     * @param outputThreshold
+     * @return
+     */
+    public CLI setOutputThreshold(int outputThreshold) {
+        this.outputThreshold = outputThreshold;
+        return this;
+    }
+
+    /**
+     * Set count of lines in pipe between commands of pipeline, writer waits
+     * when pipe is full
+     * 
+     * @param pipeCapacity
+     * @return
+     */
+    public CLI setPipeCapacity(int pipeCapacity) {
+        if (pipeCapacity < 1) {
+            throw new IllegalArgumentException("Pipe capacity should be positive");
+        }
+        this.pipeCapacity = pipeCapacity;
+        return this;
+    }
+
+    /**
+     * Set timeout of commands without own timeout. Command is interrupted and
+     * reported when it runs longer, CLI goes to the next line at once. Zero
+     * timeout disables it, it is default.
+     * 
+     * @param timeout
+     * @param unit
+     * @return
+     */
+    public CLI setDefaultTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout should not be negative");
+        }
+        this.defaultTimeout = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * Cache parsed words of the last lines, repeated lines are not parsed
+     * again. Zero size disables cache, it is default.
+     * 
+     * @param size
+     *            count of cached lines
+     * @return
+     */
+    public synchronized CLI setParseCache(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Cache size should not be negative");
+        }
+        setParser(size, fileReferences);
+        return this;
+    }
+
+    /**
+     * Read unquoted values started with {@link CLIParam#FILE_PREFIX} as
+     * paths of files, quoted values are literal. File is mapped to memory
+     * when value is converted, see {@link Argument#setFileConverter}. It is
+     * disabled by default, enable it for CLIServer only if clients may read
+     * files of server.
+     * 
+     * @param fileReferences
+     * @return
+     */
+    public synchronized CLI setFileReferences(boolean fileReferences) {
+        ArgParser current = parser;
+        setParser((current instanceof CachingParser) ? ((CachingParser) current).capacity() : 0, fileReferences);
+        this.fileReferences = fileReferences;
+        return this;
+    }
+
+    private void setParser(int cacheSize, boolean fileReferences) {
+        ScanParser scan = new ScanParser(fileReferences);
+        this.parser = (cacheSize == 0) ? scan : new CachingParser(scan, cacheSize);
+    }
+
+    /**
+     * Set count of lines kept in history, current history is dropped
+     * 
+     * @param size
+     * @return
+     */
+    public synchronized CLI setHistorySize(int size) {
+        history.closeJournal();
+        history = new History(size);
+        return this;
+    }
+
+    /**
+     * Append history lines to journal file, the last lines of file are loaded
+     * to history. Journal is closed when CLI is finished.
+     * 
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public synchronized CLI setHistoryJournal(Path file) throws IOException {
+        history.openJournal(file);
+        return this;
+    }
+
+    /**
+     * Set executor for commands which run in parallel thread. Executor is not
+     * shut down by CLI.
+     * 
+     * @param executor
+     * @return
+     */
+    public synchronized CLI setExecutor(ExecutorService executor) {
+        shutdownExecutor();
+        this.parallelExecutor = executor;
+        this.ownExecutor = false;
+        return this;
+    }
+
+    /**
+     * Set executor for sequential commands, CLI waits for command completion.
+     * By default sequential command runs in CLI thread.
+     * 
+     * @param executor
+     * @return
+     */
+    public CLI setSequentialExecutor(Executor executor) {
+        this.sequentialExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Run parallel commands in bounded pool. Policy is applied when all
+     * threads are busy and queue is full.
+     * 
+     * @param threads
+     * @param queueDepth
+     * @param policy
+     * @return
+     */
+    public synchronized CLI setPool(int threads, int queueDepth, RejectedExecutionHandler policy) {
+        shutdownExecutor();
+        this.parallelExecutor = newPool(threads, queueDepth, policy);
+        this.ownExecutor = true;
+        return this;
+    }
+
+    /**
+     * Start every parallel command in new virtual thread, requires Java 21 or
+     * later
+     * 
+     * @return
+     * @throws UnsupportedOperationException
+     */
+    public synchronized CLI useVirtualThreads() throws UnsupportedOperationException {
+        ExecutorService executor = VirtualThreads.newExecutor();
+        shutdownExecutor();
+        this.parallelExecutor = executor;
+        this.ownExecutor = true;
+        return this;
+    }
+
     /**
      * Add new Command object in CLI without synonyms
      * 
@@ -110,14 +446,122 @@ public class CLI implements Runnable, CommandRun {
      * 
      * @param command
      * @param synonyms
+     * @throws IllegalArgumentException
+     *             if synonym is name of other command
      */
-    public void addCommand(Command command, String... synonyms) {
-        command.setCli(this);
-        commandPull.put(command.getName(), command);
-        for (String synonym : synonyms) {
-            commandPull.put(synonym, command);
+    public void addCommand(Command command, String... synonyms) throws IllegalArgumentException {
+        registry.add(command, synonyms);
+    }
+
+    /**
+     * Register commands of plugins found by ServiceLoader in context class
+     * loader of current thread, see {@link #loadPlugins(ClassLoader)}
+     * 
+     * @return
+     */
+    public PluginReport loadPlugins() {
+        return loadPlugins(Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Register commands of every {@link CommandProvider} found by
+     * ServiceLoader. Only providers are loaded now, class of command is
+     * loaded on its first invocation. Command with name of registered
+     * command is skipped, failed provider is reported and skipped.
+     * 
+     * @param loader
+     * @return report of loaded providers
+     */
+    public PluginReport loadPlugins(ClassLoader loader) {
+        long start = System.nanoTime();
+        PluginReport report = new PluginReport();
+        Map<CommandProvider, List<CommandDescriptor>> found = new LinkedHashMap<>();
+        Iterator<CommandProvider> providers = ServiceLoader.load(CommandProvider.class, loader).iterator();
+        while (true) {
+            CommandProvider provider;
+            try {
+                if (!providers.hasNext()) {
+                    break;
+                }
+                provider = providers.next();
+            } catch (ServiceConfigurationError e) {
+                report.error(e.getMessage());
+                continue;
+            }
+            try {
+                found.put(provider, provider.getCommands());
+            } catch (RuntimeException e) {
+                report.error(provider.getClass().getName() + ": " + e);
+            }
         }
-        this.synonyms.put(command.getName(), synonyms);
+
+        // one snapshot for all plugins
+        registry.update((editor) -> {
+            for (Map.Entry<CommandProvider, List<CommandDescriptor>> entry : found.entrySet()) {
+                Class<?> type = entry.getKey().getClass();
+                String className = type.getName();
+                report.provider(className);
+                for (CommandDescriptor descriptor : entry.getValue()) {
+                    if (editor.get(descriptor.getName()) != null) {
+                        report.error(className + ": command \"" + descriptor.getName() + "\" is already registered");
+                        continue;
+                    }
+                    try {
+                        editor.add(new LazyCommand(descriptor, type.getClassLoader()), descriptor.getSynonyms());
+                    } catch (IllegalArgumentException e) {
+                        report.error(className + ": " + e.getMessage());
+                        continue;
+                    }
+                    report.deferred(className, descriptor.getName());
+                }
+            }
+        });
+        report.setNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Remove Command object with its synonyms from CLI, lines which are
+     * already running are completed
+     * 
+     * @param name
+     *            name or synonym of command
+     * @throws IllegalArgumentException
+     *             if command is not found
+     */
+    public void removeCommand(String name) throws IllegalArgumentException {
+        if (registry.remove(name) == null) {
+            throw new IllegalArgumentException("Command \"" + name + "\" not found");
+        }
+    }
+
+    /**
+     * Return command names and synonyms started with prefix in alphabetical
+     * order
+     * 
+     * @param prefix
+     * @return
+     */
+    public List<String> complete(String prefix) {
+        return visibleNames(registry.snapshot(), prefix);
+    }
+
+    /**
+     * Return names and synonyms started with prefix of commands which can
+     * run in this CLI
+     */
+    private List<String> visibleNames(CommandRegistry.Snapshot commands, String prefix) {
+        List<String> names = commands.complete(prefix);
+        if (fileAccess) {
+            return names;
+        }
+        List<String> visible = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (isVisible(commands.get(name))) {
+                visible.add(name);
+            }
+        }
+        return visible;
     }
 
     /**
@@ -147,6 +591,93 @@ public class CLI implements Runnable, CommandRun {
         return finSymbol;
     }
 
+    /**
+     * Return counters and latency histograms of every command, commands are
+     * ordered by name
+     * 
+     * @return
+     */
+    public Map<String, CommandStats.Snapshot> getStats() {
+        Map<String, CommandStats.Snapshot> stats = new TreeMap<>();
+        CommandRegistry.Snapshot commands = registry.snapshot();
+        for (String com : commands.getSynonyms().keySet()) {
+            Command command = commands.get(com);
+            if (command != null) {
+                stats.put(com, command.getStats());
+            }
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Return count of lines found in parse cache
+     * 
+     * @return
+     */
+    public long getParseCacheHits() {
+        ArgParser current = parser;
+        return (current instanceof CachingParser) ? ((CachingParser) current).getHits() : 0;
+    }
+
+    /**
+     * Return count of parsed lines which were not found in parse cache
+     * 
+     * @return
+     */
+    public long getParseCacheMisses() {
+        ArgParser current = parser;
+        return (current instanceof CachingParser) ? ((CachingParser) current).getMisses() : 0;
+    }
+
+    /**
+     * Return count of lines in pipe between commands
+     * 
+     * @return
+     */
+    int getPipeCapacity() {
+        return pipeCapacity;
+    }
+
+    /**
+     * Return true if useVirtualThreads() is supported in this runtime
+     * 
+     * @return
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    /**
+     * Return background jobs ordered by id
+     * 
+     * @return
+     */
+    public List<Job> getJobs() {
+        return jobs.list();
+    }
+
+    /**
+     * Return true if line ends with background symbol out of string
+     * delimiters
+     * 
+     * @param line
+     * @return
+     */
+    private static boolean isBackground(String line) {
+        int end = line.length();
+        while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        if (end == 0 || line.charAt(end - 1) != CLIParam.BACKGROUND) {
+            return false;
+        }
+        int quotes = 0;
+        for (int i = 0; i < end; i++) {
+            quotes += (line.charAt(i) == CLIParam.STR_DELIMITER) ? 1 : 0;
+        }
+        return quotes % 2 == 0;
+    }
+
     private String getPrompt() {
         return getName() + getInform() + getFinSymbol() + " ";
     }
@@ -164,47 +695,504 @@ public class CLI implements Runnable, CommandRun {
         while (!this.quit && !Thread.currentThread().isInterrupted()) {
             try {
                 String str = promptLine();
-                if (str.trim().equals("")) {
+                if (str == null) {
+                    quitCommand();
                     continue;
                 }
-                LineArgs params = new Parser().parse(str);
-                Command command = commandPull.get(params.getCommand());
-                if (command == null) {
-                    System.out.println(
-                            "Command " + (params.getCommand().equals("") ? "" : "\"" + (params.getCommand() + "\" "))
-                                    + "not found. Type \"help\" for help.");
-                    continue;
+                runLine(str);
+            } catch (IOException e) {
+                report("Input failed: " + e.getMessage());
+                quitCommand();
+            }
+        }
+        awaitExecutor();
+        closeHistory();
+        closeOutput();
+    }
+
+    /**
+     * Run one line of input: command, pipeline or background job. Errors of
+     * line are reported to output.
+     * 
+     * @param str
+     */
+    void runLine(String str) {
+        if (str.trim().equals("")) {
+            return;
+        }
+        try {
+            String line = str;
+            boolean background = isBackground(str);
+            if (background) {
+                line = str.substring(0, str.lastIndexOf(CLIParam.BACKGROUND));
+            }
+            List<String> stages = Pipeline.split(line);
+            if (stages.size() > 1) {
+                dispatchPipeline(stages, line, background);
+                remember(str);
+                return;
+            }
+            long start = System.nanoTime();
+            LineArgs params = parser.parse(line, lineArgs);
+            Command command = find(params);
+            command.stats().record(CommandStats.Phase.PARSE, System.nanoTime() - start);
+            dispatch(command, params, line, background);
+            remember(str);
+        } catch (IllegalArgumentException | InterruptedException e) {
+            report(e.getMessage());
+        }
+    }
+
+    /**
+     * Bind every stage in CLI thread, run stages connected by pipes and wait
+     * for all of them or start them as background job
+     * 
+     * @param stages
+     * @param line
+     * @param background
+     * @throws InterruptedException
+     */
+    private void dispatchPipeline(List<String> stages, String line, boolean background) throws InterruptedException {
+        List<Invocation> invocations;
+        try {
+            invocations = bindPipeline(stages, lineArgs);
+        } catch (IllegalArgumentException e) {
+            report(e.getMessage() + System.lineSeparator());
+            return;
+        }
+        if (background) {
+            Job job = jobs.create(line.trim());
+            List<CompletableFuture<Void>> futures = Pipeline.start(this, invocations, pipeCapacity, job);
+            job.setFutures(futures);
+            report("[" + job.getId() + "] " + job.getLine());
+            for (int i = 0; i < futures.size(); i++) {
+                Command command = invocations.get(i).getCommand();
+                futures.get(i).whenComplete((r, e) -> {
+                    if (e != null && !job.isKilled() && Pipeline.isFailure(e)) {
+                        report(describe(command, e));
+                    }
+                });
+            }
+            return;
+        }
+
+        List<CompletableFuture<Void>> futures = Pipeline.start(this, invocations, pipeCapacity, null);
+        for (int i = 0; i < futures.size(); i++) {
+            Command command = invocations.get(i).getCommand();
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                if (Pipeline.isFailure(e)) {
+                    report(describe(command, e.getCause()));
                 }
-                command.setLine(params);
-                Thread thread = new Thread(command);
-                thread.start();
-                if (!command.isParallelThread()) {
-                    thread.join();
+            }
+        }
+    }
+
+    /**
+     * Parse and bind every stage of pipeline
+     * 
+     * @param stages
+     * @param params
+     * @return
+     * @throws IllegalArgumentException
+     *             with errors of all stages
+     */
+    List<Invocation> bindPipeline(List<String> stages, LineArgs params) throws IllegalArgumentException {
+        List<Invocation> invocations = new ArrayList<>(stages.size());
+        StringBuilder errors = new StringBuilder();
+        for (String stage : stages) {
+            long start = System.nanoTime();
+            Command command = find(parse(stage, params));
+            command.stats().record(CommandStats.Phase.PARSE, System.nanoTime() - start);
+            BindResult bound = command.tryBind(params);
+            if (bound.isOk()) {
+                invocations.add(bound.getInvocation());
+            } else {
+                errors.append(errors.length() == 0 ? "" : System.lineSeparator()).append(bound.getMessage());
+            }
+        }
+        if (errors.length() > 0) {
+            throw new IllegalArgumentException(errors.toString());
+        }
+        return invocations;
+    }
+
+    /**
+     * Bind arguments in CLI thread and run command. Line is not used after
+     * binding, so it is reused for the next line.
+     * 
+     * @param command
+     * @param params
+     * @param line
+     * @param background
+     *            run command as background job
+     * @throws InterruptedException
+     */
+    private void dispatch(Command command, LineArgs params, String line, boolean background)
+            throws InterruptedException {
+        BindResult bound = command.tryBind(params);
+        if (!bound.isOk()) {
+            report(bound.getMessage() + System.lineSeparator());
+            return;
+        }
+        Invocation invocation = bound.getInvocation();
+        boolean parallel = background || command.isParallelThread();
+        Job job = parallel ? jobs.create(line.trim()) : null;
+
+        CompletableFuture<Void> future;
+        try {
+            future = start(invocation, parallel ? getParallelExecutor() : sequentialExecutor, null, job);
+        } catch (RejectedExecutionException e) {
+            if (job != null) {
+                jobs.remove(job);
+            }
+            command.stats().rejected();
+            report("Command \"" + command + "\" rejected, too many commands in progress");
+            return;
+        }
+        if (job != null) {
+            job.setFutures(Collections.singletonList(future));
+            report("[" + job.getId() + "] " + job.getLine());
+            future.whenComplete((r, e) -> {
+                if (e != null && !job.isKilled()) {
+                    report(describe(command, e));
                 }
-                history.add(str);
-            } catch (IllegalArgumentException | InterruptedException e) {
-                System.out.println(e.getMessage());
+            });
+            return;
+        }
+
+        // reported before the next prompt
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            report(describe(command, e.getCause()));
+        }
+    }
+
+    // Dispatch steps
+
+    /**
+     * Parse line into reusable args
+     * 
+     * @param str
+     * @param params
+     * @return
+     * @throws IllegalArgumentException
+     */
+    LineArgs parse(String str, LineArgs params) throws IllegalArgumentException {
+        return parser.parse(str, params);
+    }
+
+    /**
+     * Find command of line
+     * 
+     * @param params
+     * @return
+     * @throws IllegalArgumentException
+     */
+    Command find(LineArgs params) throws IllegalArgumentException {
+        CommandRegistry.Snapshot commands = registry.snapshot();
+        Command command = commands.resolve(params.getCommand());
+        if (command != null && !isVisible(command)) {
+            // hidden command is not resolved, so its plugin class is not loaded
+            command = null;
+        }
+        if (command == null && !params.getCommand().isEmpty()) {
+            List<String> names = visibleNames(commands, params.getCommand());
+            Set<Command> matched = new HashSet<>();
+            for (String name : names) {
+                matched.add(commands.get(name));
             }
+            if (matched.size() == 1) {
+                // the only visible command of prefix
+                command = matched.iterator().next();
+            } else if (matched.size() > 1) {
+                throw new IllegalArgumentException("Command \"" + params.getCommand() + "\" is ambiguous: "
+                        + String.join(", ", names.subList(0, Math.min(names.size(), MAX_COMPLETIONS)))
+                        + (names.size() > MAX_COMPLETIONS ? ", ..." : ""));
+            }
+        }
+        if (command instanceof LazyCommand) {
+            command = ((LazyCommand) command).resolve(registry);
+        }
+        if (command == null || !isVisible(command)) {
+            throw new IllegalArgumentException(
+                    "Command " + (params.getCommand().equals("") ? "" : "\"" + (params.getCommand() + "\" "))
+                            + "not found. Type \"help\" for help.");
+        }
+        return command;
+    }
+
+    /**
+     * Start bound command in executor
+     * 
+     * @param invocation
+     * @param executor
+     * @return future completed with command result
+     * @throws RejectedExecutionException
+     */
+    CompletableFuture<Void> start(Invocation invocation, Executor executor) throws RejectedExecutionException {
+        return start(invocation, executor, null);
+    }
+
+    /**
+     * Start bound command in executor with output to sink
+     * 
+     * @param invocation
+     * @param executor
+     * @param sink
+     *            output of command or null for default output
+     * @return future completed with command result
+     * @throws RejectedExecutionException
+     */
+    CompletableFuture<Void> start(Invocation invocation, Executor executor, OutputSink sink)
+            throws RejectedExecutionException {
+        return start(invocation, executor, sink, null);
+    }
+
+    /**
+     * Start bound command in executor as part of background job
+     * 
+     * @param invocation
+     * @param executor
+     * @param sink
+     *            output of command or null for default output
+     * @param job
+     *            job of command or null
+     * @return future completed with command result
+     * @throws RejectedExecutionException
+     */
+    CompletableFuture<Void> start(Invocation invocation, Executor executor, OutputSink sink, Job job)
+            throws RejectedExecutionException {
+        Command command = invocation.getCommand();
+        OutputSink target = sink;
+        if (target == null) {
+            target = (command.getOutput() != null) ? command.getOutput() : getSink();
+        }
+        Invocation output = invocation.withOutput(new Output(target, outputThreshold));
+        long timeout = (command.getTimeout() >= 0) ? command.getTimeout() : defaultTimeout;
+        Invocation run = (timeout > 0) ? output.withDeadline(System.nanoTime() + timeout) : output;
+        Runnable task = () -> {
+            if (job != null && !job.enter()) {
+                throw new CancellationException("Job " + job.getId() + " is killed");
+            }
+            try {
+                command.execute(this, run);
+            } finally {
+                run.getOutput().flush();
+                if (job != null) {
+                    job.exit();
+                }
+            }
+        };
+        if (timeout > 0) {
+            // CLI thread can't be released from command which ignores
+            // interruption
+            return Watchdog.start(command, task, (executor == INLINE) ? Watchdog.WORKER : executor, timeout);
+        }
+        return CompletableFuture.runAsync(task, executor);
+    }
+
+    // Output
+
+    /**
+     * Write line of CLI message to sink
+     * 
+     * @param message
+     */
+    void report(String message) {
+        getSink().write(message + System.lineSeparator());
+    }
+
+    private synchronized OutputSink getSink() {
+        if (sink == null) {
+            sink = new StreamSink(System.out);
+        }
+        return sink;
+    }
+
+    private synchronized History getHistory() {
+        return history;
+    }
+
+    private void remember(String line) {
+        try {
+            getHistory().add(line);
+        } catch (UncheckedIOException e) {
+            report("History journal failed: " + e.getCause().getMessage());
+            closeHistory();
+        }
+    }
+
+    private void closeHistory() {
+        try {
+            getHistory().closeJournal();
+        } catch (UncheckedIOException e) {
+            report("History journal failed: " + e.getCause().getMessage());
+        }
+    }
+
+    private synchronized void closeOutput() {
+        if (asyncSink != null) {
+            sink = null;
+            asyncSink.close();
+            asyncSink = null;
+        }
+    }
+
+    /**
+     * Return message of failed command
+     * 
+     * @param command
+     * @param e
+     * @return
+     */
+    static String describe(Command command, Throwable e) {
+        String message = message(command, e);
+        return isArgumentError(e) ? message + System.lineSeparator() : message;
+    }
+
+    /**
+     * Return message of failed command without formatting
+     * 
+     * @param command
+     * @param e
+     * @return
+     */
+    static String message(Command command, Throwable e) {
+        Throwable cause = unwrap(e);
+        if (cause instanceof IllegalArgumentException || cause instanceof TimeoutException) {
+            return cause.getMessage();
+        }
+        return "Command \"" + command + "\" failed: " + cause;
+    }
+
+    private static boolean isArgumentError(Throwable e) {
+        return unwrap(e) instanceof IllegalArgumentException;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+    }
+
+    Executor getSequentialExecutor() {
+        return sequentialExecutor;
+    }
+
+    boolean isQuit() {
+        return quit;
+    }
+
+    synchronized ExecutorService getParallelExecutor() {
+        if (parallelExecutor == null) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            parallelExecutor = newPool(threads, DEFAULT_QUEUE_DEPTH, new ThreadPoolExecutor.AbortPolicy());
+            ownExecutor = true;
         }
+        return parallelExecutor;
     }
 
-    private String promptLine() {
-        sc = new Scanner(System.in);
-        System.out.print(getPrompt());
-        return sc.nextLine();
+    /**
+     * Shut down executor created by CLI, started commands are completed
+     */
+    private synchronized void shutdownExecutor() {
+        if (ownExecutor) {
+            parallelExecutor.shutdown();
+            parallelExecutor = null;
+            ownExecutor = false;
+        }
+    }
+
+    /**
+     * Shut down executor created by CLI and wait for started commands. Virtual
+     * threads do not keep JVM alive, so CLI waits for them itself.
+     */
+    private void awaitExecutor() {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = ownExecutor ? parallelExecutor : null;
+            shutdownExecutor();
+        }
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService newPool(int threads, int queueDepth, RejectedExecutionHandler policy) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueDepth), r -> new Thread(r, "cli-command-" + count.incrementAndGet()),
+                policy);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Print prompt and read line, return null at the end of input
+     * 
+     * @return
+     * @throws IOException
+     */
+    private String promptLine() throws IOException {
+        prompt();
+        return getLineSource().readLine();
+    }
+
+    /**
+     * Write prompt to sink
+     */
+    void prompt() {
+        getSink().write(getPrompt());
+    }
+
+    /**
+     * Return line source, one buffered source is used for whole session
+     * 
+     * @return
+     */
+    private LineSource getLineSource() {
+        if (lineSource == null) {
+            lineSource = new ChannelLineSource(Channels.newChannel(System.in));
+        }
+        return lineSource;
     }
 
     @Override
-    public void runCommand(CLI cli, Command command) {
-        switch (command.getName()) {
+    public void runCommand(CLI cli, Invocation invocation) {
+        switch (invocation.getCommand().getName()) {
         case "quit":
             cli.quitCommand();
             break;
         case "history":
-            historyCommand(command);
+            historyCommand(cli, invocation);
             break;
         case "help":
-            helpCommand(command);
+            helpCommand(cli, invocation);
+            break;
+        case "script":
+            scriptCommand(cli, invocation);
+            break;
+        case "stats":
+            statsCommand(cli, invocation);
+            break;
+        case "jobs":
+            for (Job job : cli.jobs.report()) {
+                invocation.getOutput().println(job);
+            }
+            break;
+        case "wait":
+            waitCommand(cli, invocation);
+            break;
+        case "kill":
+            if (!cli.getJob(invocation.getInt(0)).kill()) {
+                throw new IllegalArgumentException("Job " + invocation.getInt(0) + " is finished");
+            }
             break;
         default:
             break;
@@ -215,40 +1203,143 @@ public class CLI implements Runnable, CommandRun {
         this.quit = true;
     }
 
-    private void historyCommand(Command command) {
-        if (command.getArgument("clear").isFilled()) {
-            history = new ArrayList<>();
+    private void historyCommand(CLI cli, Invocation invocation) {
+        Output out = invocation.getOutput();
+        History history = cli.getHistory();
+        if (invocation.isFilled("clear")) {
+            history.clear();
             return;
         }
 
-        if (command.getArgument("tail").isFilled()) {
-            Integer count = (Integer) command.getArgument("tail").getValue();
-            count = count > history.size() ? history.size() : count;
-            for (int i = history.size() - count; i < history.size(); i++) {
-                System.out.println(history.get(i));
+        int modes = (invocation.isFilled("search") ? 1 : 0) + (invocation.isFilled("prefix") ? 1 : 0)
+                + (invocation.isFilled("reverse") ? 1 : 0);
+        if (modes > 1) {
+            throw new IllegalArgumentException("Use only one of --search, --prefix or --reverse");
+        }
+
+        if (invocation.isFilled("reverse")) {
+            String line = history.findLast((String) invocation.getArg("reverse"));
+            if (line != null) {
+                out.println(line);
             }
             return;
         }
 
-        for (String h : history) {
-            System.out.println(h);
+        List<String> lines;
+        if (invocation.isFilled("search")) {
+            lines = history.find((String) invocation.getArg("search"));
+        } else if (invocation.isFilled("prefix")) {
+            lines = history.findByPrefix((String) invocation.getArg("prefix"));
+        } else {
+            lines = invocation.isFilled("tail") ? history.tail(invocation.getInt("tail")) : history.all();
+        }
+        if (modes > 0 && invocation.isFilled("tail")) {
+            int count = invocation.getInt("tail");
+            lines = lines.subList(Math.max(lines.size() - count, 0), lines.size());
+        }
+        for (String h : lines) {
+            out.println(h);
         }
     }
 
-    private void helpCommand(Command command) {
-        if (command.getFreeArguments().get(0).isFilled()) {
-            System.out.println("Not ready");
+    private void scriptCommand(CLI cli, Invocation invocation) {
+        if (invocation.isFilled("fail-fast") && invocation.isFilled("continue")) {
+            throw new IllegalArgumentException("Use either --fail-fast or --continue");
+        }
+
+        String path = (String) invocation.getArg(0);
+        Batch batch = new Batch(cli).failFast(invocation.isFilled("fail-fast"))
+                .inParallel(invocation.isFilled("parallel"));
+        try {
+            invocation.getOutput().println(batch.run(Paths.get(path)));
+        } catch (IOException | InvalidPathException e) {
+            throw new IllegalArgumentException("Script \"" + path + "\" can't be read: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitCommand(CLI cli, Invocation invocation) {
+        List<Job> list = invocation.isFilled(0) ? Collections.singletonList(cli.getJob(invocation.getInt(0)))
+                : cli.jobs.list();
+        for (Job job : list) {
+            CompletableFuture<Void> future = job.getFuture();
+            if (job.isCurrent()) {
+                // wait runs as background job itself
+                if (invocation.isFilled(0)) {
+                    throw new IllegalArgumentException("Job " + job.getId() + " can't wait for itself");
+                }
+                continue;
+            }
+            if (future == null) {
+                // job is being started
+                continue;
+            }
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | CancellationException e) {
+                // status is shown
+            }
+            invocation.getOutput().println(job);
+            cli.jobs.forget(job);
+        }
+    }
+
+    private Job getJob(int id) throws IllegalArgumentException {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new IllegalArgumentException("Job " + id + " not found");
+        }
+        return job;
+    }
+
+    private void statsCommand(CLI cli, Invocation invocation) {
+        Output out = invocation.getOutput();
+        if (invocation.isFilled(0)) {
+            String name = (String) invocation.getArg(0);
+            Command command = cli.registry.snapshot().resolve(name);
+            if (command == null) {
+                throw new IllegalArgumentException("Command \"" + name + "\" not found");
+            }
+            out.println(command.getStats());
+            return;
+        }
+
+        for (CommandStats.Snapshot stats : cli.getStats().values()) {
+            if (stats.getInvocations() > 0) {
+                out.println(stats);
+            }
+        }
+        if (cli.parser instanceof CachingParser) {
+            out.println(cli.parser);
+        }
+    }
+
+    private void helpCommand(CLI cli, Invocation invocation) {
+        if (invocation.isFilled(0)) {
+            invocation.getOutput().println("Not ready");
         } else {
-            cliHelp();
+            cli.cliHelp(invocation.getOutput());
         }
 
     }
 
-    private void cliHelp() {
-        System.out.println("Supported command:" + System.lineSeparator());
-        Set<String> commands = synonyms.keySet();
+    /**
+     * Return true if command can run in this CLI
+     */
+    private boolean isVisible(Command command) {
+        return fileAccess || !command.isFileAccess();
+    }
+
+    private void cliHelp(Output out) {
+        out.println("Supported command:" + System.lineSeparator());
+        CommandRegistry.Snapshot commands = registry.snapshot();
+        Map<String, String[]> synonyms = commands.getSynonyms();
 
-        for (String com : commands) {
+        for (String com : synonyms.keySet()) {
             String comStr = com;
 
             if (synonyms.get(com).length > 0) {
@@ -257,9 +1348,13 @@ public class CLI implements Runnable, CommandRun {
                 comStr += synArr.substring(1, synArr.length() - 1);
             }
 
-            String desc = commandPull.get(com).getDesc();
+            Command command = commands.get(com);
+            if (command == null || !isVisible(command)) {
+                continue;
+            }
+            String desc = command.getDesc();
 
-            System.out.printf(" %-20s  %s%s", comStr, desc, System.lineSeparator());
+            out.printf(" %-20s  %s%s", comStr, desc, System.lineSeparator());
         }
         //System.out.println(System.lineSeparator() + "For detail use: help <command>" + System.lineSeparator());
     }
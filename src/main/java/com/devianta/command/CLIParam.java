@@ -9,5 +9,19 @@ public interface CLIParam {
      * Define {@code char} symbol of string delimiter
      */
     public static Character STR_DELIMITER = '"';
+    /**
+     * Define {@code char} symbol between commands of pipeline
+     */
+    public static char PIPE = '|';
+    /**
+     * Define {@code char} symbol at the end of line which runs command in
+     * background
+     */
+    public static char BACKGROUND = '&';
+    /**
+     * Define {@code char} prefix of unquoted value which is a path of file,
+     * see {@link CLI#setFileReferences(boolean)}
+     */
+    public static char FILE_PREFIX = '@';
 
 }
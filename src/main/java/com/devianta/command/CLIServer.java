@@ -0,0 +1,335 @@
+package com.devianta.command;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Server of CLI commands over TCP or Unix domain socket. Every connection is
+ * a session with own prompt, history, jobs and quit flag, commands and
+ * executors of CLI are shared by all sessions. One selector thread accepts
+ * connections, reads lines and writes output, lines run in parallel executor
+ * of CLI. Idle session keeps only its channel and small state, so one server
+ * holds thousands of sessions. Clients can't reach files of host unless
+ * {@link #setFileAccess(boolean)} allows it.
+ */
+public final class CLIServer implements Runnable, Closeable {
+    /**
+     * Default limit of line length in bytes
+     */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 64 * 1024;
+    /**
+     * Default size of unsent output of session, commands wait when it is
+     * exceeded
+     */
+    public static final int DEFAULT_OUTPUT_LIMIT = 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final CLI cli;
+    private final Selector selector;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final Queue<ServerSession> signaled = new ConcurrentLinkedQueue<>();
+    private final Set<ServerSession> sessions = ConcurrentHashMap.newKeySet();
+    private ServerSocketChannel server;
+    private Path socketFile;
+    private int maxLineLength = DEFAULT_MAX_LINE_LENGTH;
+    private int outputLimit = DEFAULT_OUTPUT_LIMIT;
+    private boolean fileAccess = false;
+    private volatile Thread selectorThread;
+    private volatile boolean closed = false;
+
+    /**
+     * New server of CLI commands, server should be bound before run
+     *
+     * @param cli
+     * @throws IOException
+     */
+    public CLIServer(CLI cli) throws IOException {
+        super();
+        this.cli = cli;
+        this.selector = Selector.open();
+    }
+
+    // Chain setters
+
+    /**
+     * Set limit of line length in bytes, session with longer line is closed
+     *
+     * @param maxLineLength
+     * @return
+     */
+    public CLIServer setMaxLineLength(int maxLineLength) {
+        if (maxLineLength < 1) {
+            throw new IllegalArgumentException("Line length should be positive");
+        }
+        this.maxLineLength = maxLineLength;
+        return this;
+    }
+
+    /**
+     * Set size of unsent output of session in bytes, commands of session wait
+     * when client reads slower
+     *
+     * @param outputLimit
+     * @return
+     */
+    public CLIServer setOutputLimit(int outputLimit) {
+        if (outputLimit < 1) {
+            throw new IllegalArgumentException("Output limit should be positive");
+        }
+        this.outputLimit = outputLimit;
+        return this;
+    }
+
+    /**
+     * Allow clients to run commands which access files of host, for example
+     * script, and to use file references. It is disabled by default.
+     *
+     * @param fileAccess
+     * @return
+     */
+    public CLIServer setFileAccess(boolean fileAccess) {
+        this.fileAccess = fileAccess;
+        return this;
+    }
+
+    /**
+     * Listen on TCP address
+     *
+     * @param address
+     * @return
+     * @throws IOException
+     */
+    public synchronized CLIServer bind(SocketAddress address) throws IOException {
+        checkUnbound();
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.bind(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        listen(channel);
+        return this;
+    }
+
+    /**
+     * Listen on Unix domain socket file, file is deleted when server is
+     * closed. Requires Java 21 or later.
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     * @throws UnsupportedOperationException
+     */
+    public synchronized CLIServer bind(Path path) throws IOException, UnsupportedOperationException {
+        checkUnbound();
+        listen(UnixSockets.open(path));
+        this.socketFile = path;
+        return this;
+    }
+
+    private void checkUnbound() {
+        if (server != null) {
+            throw new IllegalStateException("Server is already bound");
+        }
+    }
+
+    private void listen(ServerSocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_ACCEPT);
+        this.server = channel;
+    }
+
+    // Getters
+
+    /**
+     * Return address of server, for example TCP port chosen by system
+     *
+     * @return
+     * @throws IOException
+     */
+    public synchronized SocketAddress getLocalAddress() throws IOException {
+        if (server == null) {
+            throw new IllegalStateException("Server is not bound");
+        }
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Return count of open sessions
+     *
+     * @return
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Return true if bind(Path) is supported in this runtime
+     *
+     * @return
+     */
+    public static boolean isUnixSocketSupported() {
+        return UnixSockets.isSupported();
+    }
+
+    // Run
+
+    /**
+     * Run server in new thread
+     */
+    public void running() {
+        Thread th = new Thread(this, "cli-server");
+        th.start();
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (server == null) {
+                throw new IllegalStateException("Server is not bound");
+            }
+        }
+        selectorThread = Thread.currentThread();
+        try {
+            while (!closed && !Thread.currentThread().isInterrupted()) {
+                selector.select();
+                for (ServerSession session; (session = signaled.poll()) != null;) {
+                    session.updateInterest();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid()) {
+                        handle(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            cli.report("Server failed: " + e.getMessage());
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        ServerSession session = (ServerSession) key.attachment();
+        try {
+            if (key.isReadable()) {
+                session.read(readBuffer);
+            }
+            if (key.isValid() && key.isWritable()) {
+                session.flush();
+            }
+        } catch (IOException e) {
+            session.close();
+        }
+    }
+
+    /**
+     * Accept connection, failure of one connection doesn't stop server
+     */
+    private void accept() {
+        SocketChannel channel;
+        try {
+            channel = server.accept();
+        } catch (IOException e) {
+            cli.report("Accept failed: " + e.getMessage());
+            return;
+        }
+        if (channel == null) {
+            return;
+        }
+        ServerSession session;
+        try {
+            channel.configureBlocking(false);
+            if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            session = new ServerSession(this, channel, cli, maxLineLength, outputLimit, fileAccess);
+            session.setKey(channel.register(selector, SelectionKey.OP_READ, session));
+        } catch (IOException e) {
+            cli.report("Accept failed: " + e.getMessage());
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                // channel is closed anyway
+            }
+            return;
+        }
+        sessions.add(session);
+        session.getCLI().prompt();
+        session.updateInterest();
+    }
+
+    /**
+     * Stop accepting connections and close all sessions, running commands
+     * are completed
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        if (selectorThread == null) {
+            shutdown();
+        }
+    }
+
+    private synchronized void shutdown() {
+        for (ServerSession session : new ArrayList<>(sessions)) {
+            session.close();
+        }
+        try {
+            if (server != null) {
+                server.close();
+            }
+            selector.close();
+            if (socketFile != null) {
+                Files.deleteIfExists(socketFile);
+            }
+        } catch (IOException e) {
+            cli.report("Server close failed: " + e.getMessage());
+        }
+    }
+
+    // Session callbacks
+
+    /**
+     * Update session in selector thread
+     *
+     * @param session
+     */
+    void signal(ServerSession session) {
+        signaled.add(session);
+        selector.wakeup();
+    }
+
+    void closed(ServerSession session) {
+        sessions.remove(session);
+    }
+
+    boolean inSelector() {
+        return Thread.currentThread() == selectorThread;
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.devianta.command;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ArgParser with bounded LRU cache of parsed lines. Words of repeated line are
+ * copied from cache without tokenization. Cached words are private copies, so
+ * they are never changed by callers. Lines with errors and long lines are not
+ * cached.
+ */
+final class CachingParser implements ArgParser {
+    // longer lines are parsed every time
+    private static final int MAX_CACHED_LINE = 1024;
+
+    private final ArgParser parser;
+    private final int size;
+    private final Map<String, LineArgs> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * New cache in front of parser
+     *
+     * @param parser
+     * @param size
+     *            count of cached lines
+     */
+    CachingParser(ArgParser parser, int size) {
+        super();
+        if (size < 1) {
+            throw new IllegalArgumentException("Cache size should be positive");
+        }
+        this.parser = parser;
+        this.size = size;
+        this.cache = new LinkedHashMap<String, LineArgs>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LineArgs> eldest) {
+                return size() > CachingParser.this.size;
+            }
+        };
+    }
+
+    @Override
+    public LineArgs parse(String line) {
+        return parse(line, new LineArgs());
+    }
+
+    @Override
+    public LineArgs parse(String line, LineArgs args) {
+        if (line.length() > MAX_CACHED_LINE) {
+            return parser.parse(line, args);
+        }
+        LineArgs cached;
+        synchronized (cache) {
+            cached = cache.get(line);
+        }
+        if (cached != null) {
+            hits.increment();
+            args.copyFrom(cached);
+            return args;
+        }
+        misses.increment();
+        parser.parse(line, args);
+        LineArgs copy = new LineArgs();
+        copy.copyFrom(args);
+        // command name is created once for all hits
+        copy.getCommand();
+        synchronized (cache) {
+            cache.put(line, copy);
+        }
+        return args;
+    }
+
+    // Getters
+
+    /**
+     * Return count of lines found in cache
+     *
+     * @return
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Return count of parsed lines which were not found in cache
+     *
+     * @return
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Return count of cached lines
+     *
+     * @return
+     */
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Return maximum count of cached lines
+     *
+     * @return
+     */
+    int capacity() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Parse cache: %d of %d lines, hits %d, misses %d", size(), size, getHits(),
+                getMisses());
+    }
+
+}
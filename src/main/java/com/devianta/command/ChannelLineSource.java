@@ -0,0 +1,149 @@
+package com.devianta.command;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * LineSource over byte channel. Bytes are read into one large buffer and
+ * decoded in bulk, lines are cut from decoded buffer. Lines end with "\n",
+ * "\r" or "\r\n".
+ */
+public class ChannelLineSource implements LineSource, Closeable {
+    /**
+     * Default size of byte and char buffers
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final StringBuilder partial = new StringBuilder();
+    private boolean eof = false;
+    private boolean flushed = false;
+    private boolean skipLF = false;
+
+    /**
+     * New source with default charset and buffer size
+     * 
+     * @param channel
+     */
+    public ChannelLineSource(ReadableByteChannel channel) {
+        this(channel, Charset.defaultCharset(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * New source
+     * 
+     * @param channel
+     * @param charset
+     * @param bufferSize
+     */
+    public ChannelLineSource(ReadableByteChannel channel, Charset charset, int bufferSize) {
+        super();
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("Buffer size should be at least 16");
+        }
+        this.channel = channel;
+        this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate(bufferSize);
+        this.chars = CharBuffer.allocate(bufferSize);
+        this.chars.flip();
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        while (true) {
+            if (skipLF && chars.hasRemaining()) {
+                if (chars.get(chars.position()) == '\n') {
+                    chars.position(chars.position() + 1);
+                }
+                skipLF = false;
+            }
+
+            char[] array = chars.array();
+            int start = chars.position();
+            int limit = chars.limit();
+            for (int i = start; i < limit; i++) {
+                char c = array[i];
+                if (c == '\n' || c == '\r') {
+                    chars.position(i + 1);
+                    skipLF = (c == '\r');
+                    return take(array, start, i);
+                }
+            }
+            partial.append(array, start, limit - start);
+            chars.position(limit);
+
+            if (!fill()) {
+                if (partial.length() == 0) {
+                    return null;
+                }
+                return take(array, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * Line from partial buffer and region of chars
+     */
+    private String take(char[] array, int from, int to) {
+        if (partial.length() == 0) {
+            return new String(array, from, to - from);
+        }
+        partial.append(array, from, to - from);
+        String line = partial.toString();
+        partial.setLength(0);
+        return line;
+    }
+
+    /**
+     * Read and decode next block, return false at the end of input
+     */
+    private boolean fill() throws IOException {
+        chars.clear();
+        try {
+            while (chars.position() == 0) {
+                if (eof) {
+                    if (flushed) {
+                        return false;
+                    }
+                    bytes.flip();
+                    decoder.decode(bytes, chars, true);
+                    decoder.flush(chars);
+                    bytes.compact();
+                    flushed = true;
+                    return chars.position() > 0;
+                }
+
+                if (channel.read(bytes) < 0) {
+                    eof = true;
+                    continue;
+                }
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, false);
+                bytes.compact();
+                if (result.isError()) {
+                    result.throwException();
+                }
+            }
+            return true;
+        } finally {
+            chars.flip();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -2,16 +2,21 @@ package com.devianta.command;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-public class Command implements Runnable {
+public class Command {
     
     private String name;
     private String desc;
     private boolean parallelThread;
+    private boolean lazyConversion;
+    private boolean fileAccess;
+    private long timeout = -1;
     private CommandRun commandRun;
+    private OutputSink output;
     private List<Argument<?>> argument;
-    private LineArgs line;
-    private CLI cli;
+    private volatile Schema schema;
+    private final CommandStats stats = new CommandStats();
 
     /**
      * New Command with default parameters
@@ -56,6 +61,60 @@ public class Command implements Runnable {
         return this;
     }
 
+    /**
+     * If values of arguments should be converted and validated on first access
+     * set lazyConversion value in true. Count, names and presence of required
+     * arguments are checked before run in both modes.
+     * 
+     * @param lazyConversion
+     * @return
+     */
+    public Command convertLazily(boolean lazyConversion) {
+        this.lazyConversion = lazyConversion;
+        return this;
+    }
+
+    /**
+     * Interrupt command when it runs longer than timeout and report it as
+     * failed. Zero timeout disables timeout of command, by default timeout of
+     * CLI is used.
+     * 
+     * @param timeout
+     * @param unit
+     * @return
+     */
+    public Command setTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout should not be negative");
+        }
+        this.timeout = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * If command reads or writes files of host set fileAccess value in true.
+     * Sessions of CLIServer hide such command unless server allows file
+     * access.
+     * 
+     * @param fileAccess
+     * @return
+     */
+    public Command setFileAccess(boolean fileAccess) {
+        this.fileAccess = fileAccess;
+        return this;
+    }
+
+    /**
+     * Redirect output of command to sink, by default output of CLI is used
+     * 
+     * @param output
+     * @return
+     */
+    public Command setOutput(OutputSink output) {
+        this.output = output;
+        return this;
+    }
+
     // Public setters
 
     /**
@@ -68,37 +127,54 @@ public class Command implements Runnable {
             throw new IllegalArgumentException("Argument \"" + argument + "\" already exist");
         }
         this.argument.add(argument);
+        this.schema = null;
     }
 
-    // protected setters
+    // protected getters
+
+    /**
+     * Return true if CommandRun should be execute in parallel thread
+     * 
+     * @return
+     */
+    protected boolean isParallelThread() {
+        return parallelThread;
+    }
 
     /**
-     * Set command line from CLI
+     * Return true if values of arguments are converted on first access
      * 
-     * @param line
+     * @return
      */
-    protected void setLine(LineArgs line) {
-        this.line = line;
+    protected boolean isLazyConversion() {
+        return lazyConversion;
     }
 
     /**
-     * Set the caller CLI
+     * Return true if command reads or writes files of host
      * 
-     * @param cli
+     * @return
      */
-    protected void setCli(CLI cli) {
-        this.cli = cli;
+    protected boolean isFileAccess() {
+        return fileAccess;
     }
 
-    // protected getters
+    /**
+     * Return timeout of command in nanoseconds, -1 if timeout of CLI is used
+     * 
+     * @return
+     */
+    protected long getTimeout() {
+        return timeout;
+    }
 
     /**
-     * Return true if CommandRun should be execute in parallel thread
+     * Return sink of command output or null if output of CLI is used
      * 
      * @return
      */
-    protected boolean isParallelThread() {
-        return parallelThread;
+    protected OutputSink getOutput() {
+        return output;
     }
 
     /**
@@ -110,6 +186,24 @@ public class Command implements Runnable {
         return name;
     }
 
+    /**
+     * Return counters and latency histograms of Command
+     * 
+     * @return
+     */
+    public CommandStats.Snapshot getStats() {
+        return stats.snapshot(name);
+    }
+
+    /**
+     * Return collectors of counters
+     * 
+     * @return
+     */
+    protected CommandStats stats() {
+        return stats;
+    }
+
     /**
      * Return description of Command
      * 
@@ -126,12 +220,17 @@ public class Command implements Runnable {
      * @return
      */
     public Argument<?> getArgument(String name) {
-        for (Argument<?> arg : argument) {
-            if (arg.isEqualsName(name)) {
-                return arg;
-            }
-        }
-        return null;
+        return findArgument(name);
+    }
+
+    /**
+     * Return named Argument object use name view
+     * 
+     * @param name
+     * @return
+     */
+    protected Argument<?> findArgument(CharSequence name) {
+        return getSchema().get(name);
     }
 
     /**
@@ -150,124 +249,171 @@ public class Command implements Runnable {
      * @return
      */
     protected List<Argument<?>> getFreeArguments() {
-        List<Argument<?>> freeArgs = new ArrayList<>();
-        argument.stream().filter(n -> n.isFree()).forEachOrdered(n -> freeArgs.add(n));
-        return freeArgs;
-    }
-    
-    public Object getArg(int n) {
-        return getFreeArguments().get(n).getValue();
-    }
-    
-    public Object getArg(String name) {
-        return getArgument(name).getValue();
+        return getSchema().getFree();
     }
 
-    @Override
-    public void run() {
-        try {
-            validateArguments();
-            fillArguments();
-            commandRun.runCommand(cli, this);
-        } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage() + System.lineSeparator());
-        } finally {
-            clearArgs();
+    /**
+     * Return compiled arguments, arguments are compiled once after last
+     * change
+     * 
+     * @return
+     */
+    protected Schema getSchema() {
+        Schema current = schema;
+        if (current == null) {
+            current = new Schema(argument);
+            schema = current;
         }
+        return current;
     }
-
+    
     /**
-     * Validate arguments
+     * Validate line and bind argument values to new Invocation
      * 
+     * @param line
+     * @return
      * @throws IllegalArgumentException
+     *             with messages of all errors
      */
-    private void validateArguments() throws IllegalArgumentException {
-        try {
-            validateFree();
-            validateRequired();
-            validateLines();
-        } catch (IllegalArgumentException e) {
-            throw e;
+    protected Invocation bind(LineArgs line) throws IllegalArgumentException {
+        BindResult result = tryBind(line);
+        if (!result.isOk()) {
+            throw new IllegalArgumentException(result.getMessage());
         }
+        return result.getInvocation();
     }
 
     /**
-     * Validate free arguments
+     * Validate line and bind argument values without exception. All errors
+     * of line are collected.
      * 
-     * @throws IllegalArgumentException
+     * @param line
+     * @return
      */
-    private void validateFree() throws IllegalArgumentException {
-        int min = 0;
-        int max = 0;
-        for (Argument<?> arg : argument) {
-            if (arg.isFree()) {
-                max += 1;
-                min = arg.isRequired() ? min + 1 : min;
-            }
+    protected BindResult tryBind(LineArgs line) {
+        Schema current = getSchema();
+        stats.invoked();
+        long start = System.nanoTime();
+        List<BindError> errors = checkArguments(current, line, null);
+        long validated = System.nanoTime();
+        stats.record(CommandStats.Phase.VALIDATE, validated - start);
+
+        Object[] values = new Object[current.size()];
+        long[] primitives = current.hasPrimitives() ? new long[current.size()] : null;
+        boolean[] filled = new boolean[current.size()];
+        LazyValues lazy = lazyConversion ? new LazyValues(current.size()) : null;
+        errors = fillArguments(current, line, values, primitives, filled, lazy, errors);
+        if (lazy == null) {
+            stats.record(CommandStats.Phase.CONVERT, System.nanoTime() - validated);
         }
-        if (line.getFreeArgCount() < min || line.getFreeArgCount() > max) {
-            throw new IllegalArgumentException("Unsupported arguments amount");
+
+        if (errors != null) {
+            stats.failed();
+            return new BindResult(errors);
         }
+        return new BindResult(new Invocation(this, current, values, primitives, filled, lazy));
     }
 
     /**
-     * Check required arguments
+     * Run CommandRun with bound arguments, errors are reported by caller
      * 
-     * @throws IllegalArgumentException
+     * @param cli
+     * @param invocation
      */
-    private void validateRequired() throws IllegalArgumentException {
-        for (Argument<?> arg : argument) {
-            if (arg.isFree() || !arg.isRequired()) {
-                continue;
-            }
-
-            if (!line.available(arg)) {
-                throw new IllegalArgumentException("Required argument \"" + arg + "\" hasn't finded");
+    protected void execute(CLI cli, Invocation invocation) {
+        long start = System.nanoTime();
+        try {
+            commandRun.runCommand(cli, invocation);
+        } catch (PipeClosedException e) {
+            // stopped by the next command of pipeline
+            throw e;
+        } catch (RuntimeException | Error e) {
+            if (!Watchdog.isExpired()) {
+                // expired command is counted as timeout
+                stats.failed();
             }
+            throw e;
+        } finally {
+            stats.record(CommandStats.Phase.EXECUTE, System.nanoTime() - start);
         }
     }
 
     /**
-     * Check named arguments from line
-     * 
-     * @throws IllegalArgumentException
+     * Check arguments count and names
      */
-    private void validateLines() throws IllegalArgumentException {
-        for (String name : line.getArgsNames()) {
-            if (getArgument(name) == null) {
-                throw new IllegalArgumentException("Unexpected argument \"" + name + "\"");
+    private List<BindError> checkArguments(Schema current, LineArgs line, List<BindError> errors) {
+        // Free arguments
+
+        if (line.getFreeArgCount() < current.getMinFree() || line.getFreeArgCount() > current.getMaxFree()) {
+            errors = add(errors, BindError.amount());
+        }
+
+        // Required arguments
+
+        for (Argument<?> arg : current.getRequired()) {
+            if (!line.available(arg)) {
+                errors = add(errors, BindError.required(arg));
+            }
+        }
+
+        // Named arguments from line
+
+        for (int i = 0; i < line.getNamedArgCount(); i++) {
+            if (current.slot(line.getNameSource(i), line.getNameFrom(i), line.getNameTo(i)) < 0) {
+                errors = add(errors,
+                        BindError.unexpected(line.getNameSource(i), line.getNameFrom(i), line.getNameTo(i)));
             }
         }
+        return errors;
     }
 
     /**
-     * Fill arguments from line
-     * 
-     * @throws IllegalArgumentException
+     * Fill arguments from line, arguments which are not defined are skipped.
+     * In lazy mode raw values are kept for conversion on first access.
      */
-    private void fillArguments() throws IllegalArgumentException {
-
+    private List<BindError> fillArguments(Schema current, LineArgs line, Object[] values, long[] primitives,
+            boolean[] filled, LazyValues lazy, List<BindError> errors) {
         // Fill free arguments
 
-        List<Argument<?>> fa = getFreeArguments();
-        for (int i = 0; i < line.getFreeArgCount(); i++) {
-            fa.get(i).setValue(line.getFreeValue(i));
+        int free = Math.min(line.getFreeArgCount(), current.getMaxFree());
+        for (int i = 0; i < free; i++) {
+            int slot = current.freeSlot(i);
+            errors = fill(current.argument(slot), line.getFreeSource(i), line.getFreeFrom(i), line.getFreeTo(i),
+                    line.isFreeFile(i), values, primitives, filled, lazy, slot, errors);
         }
 
         // Fill named arguments
 
-        for (String name : line.getArgsNames()) {
-            getArgument(name).setValue(line.getNamedValue(name));
+        for (int i = 0; i < line.getNamedArgCount(); i++) {
+            int slot = current.slot(line.getNameSource(i), line.getNameFrom(i), line.getNameTo(i));
+            if (slot >= 0) {
+                errors = fill(current.argument(slot), line.getNamedSource(i), line.getNamedFrom(i),
+                        line.getNamedTo(i), line.isNamedFile(i), values, primitives, filled, lazy, slot, errors);
+            }
         }
+        return errors;
     }
 
-    /**
-     * Clear arguments values
-     */
-    private void clearArgs() {
-        for (Argument<?> arg : argument) {
-            arg.clearValue();
+    private List<BindError> fill(Argument<?> arg, String source, int from, int to, boolean file,
+            Object[] values, long[] primitives, boolean[] filled, LazyValues lazy, int slot,
+            List<BindError> errors) {
+        if (lazy != null) {
+            lazy.put(slot, source, from, to, file);
+            filled[slot] = true;
+            return errors;
         }
+        Validation result = arg.fill(source, from, to, file, values, primitives, slot);
+        if (!result.isValid()) {
+            return add(errors, BindError.value(arg, result, source, from, to));
+        }
+        filled[slot] = true;
+        return errors;
+    }
+
+    private static List<BindError> add(List<BindError> errors, BindError error) {
+        List<BindError> list = (errors == null) ? new ArrayList<>() : errors;
+        list.add(error);
+        return list;
     }
 
     @Override
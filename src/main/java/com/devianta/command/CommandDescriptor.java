@@ -0,0 +1,145 @@
+package com.devianta.command;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+/**
+ * Name, synonyms and description of plugin command. Command is created on
+ * first invocation by factory or from class name, until then help shows the
+ * description of descriptor.
+ */
+public final class CommandDescriptor {
+    private final String name;
+    private final String description;
+    private final String className;
+    private final Supplier<Command> factory;
+    private String[] synonyms = new String[0];
+    private boolean fileAccess;
+
+    /**
+     * New descriptor of command class. Class is a Command or a
+     * {@code Supplier<Command>} with public constructor without parameters,
+     * it is loaded by class loader of provider.
+     *
+     * @param name
+     * @param description
+     * @param className
+     */
+    public CommandDescriptor(String name, String description, String className) {
+        this(name, description, className, null);
+    }
+
+    /**
+     * New descriptor of command factory. Factory should not refer to classes
+     * of command outside of its body, for example
+     * {@code () -> new HeavyCommand()} or factory of generated Commands
+     * class.
+     *
+     * @param name
+     * @param description
+     * @param factory
+     */
+    public CommandDescriptor(String name, String description, Supplier<Command> factory) {
+        this(name, description, null, factory);
+    }
+
+    private CommandDescriptor(String name, String description, String className, Supplier<Command> factory) {
+        super();
+        if (name == null || name.isEmpty() || description == null || (className == null && factory == null)) {
+            throw new IllegalArgumentException("Null pointer in command descriptor");
+        }
+        this.name = name;
+        this.description = description;
+        this.className = className;
+        this.factory = factory;
+    }
+
+    // Chain setters
+
+    public CommandDescriptor setSynonyms(String... synonyms) {
+        this.synonyms = synonyms.clone();
+        return this;
+    }
+
+    /**
+     * Mark command which reads or writes files of host, sessions of CLIServer
+     * without file access neither see nor load it, see
+     * {@link Command#setFileAccess(boolean)}
+     *
+     * @param fileAccess
+     * @return
+     */
+    public CommandDescriptor setFileAccess(boolean fileAccess) {
+        this.fileAccess = fileAccess;
+        return this;
+    }
+
+    // Getters
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String[] getSynonyms() {
+        return synonyms.clone();
+    }
+
+    public boolean isFileAccess() {
+        return fileAccess;
+    }
+
+    /**
+     * Return class name of command or null if command is created by factory
+     *
+     * @return
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Load and create command
+     *
+     * @param loader
+     *            class loader of provider
+     * @return
+     * @throws IllegalArgumentException
+     *             if command can't be created
+     */
+    Command create(ClassLoader loader) throws IllegalArgumentException {
+        Object created;
+        try {
+            if (factory != null) {
+                created = factory.get();
+            } else {
+                created = Class.forName(className, true, loader).getConstructor().newInstance();
+                if (created instanceof Supplier) {
+                    created = ((Supplier<?>) created).get();
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            Throwable cause = (e instanceof InvocationTargetException) ? e.getCause() : e;
+            throw new IllegalArgumentException("Command \"" + name + "\" can't be loaded: " + cause, cause);
+        }
+        if (!(created instanceof Command)) {
+            throw new IllegalArgumentException("Command \"" + name + "\" can't be loaded: "
+                    + (created == null ? "factory returned null" : created.getClass().getName() + " is not Command"));
+        }
+        Command command = (Command) created;
+        if (!command.getName().equals(name)) {
+            throw new IllegalArgumentException(
+                    "Command \"" + name + "\" can't be loaded: class has name \"" + command.getName() + "\"");
+        }
+        return command;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + (className != null ? className : "factory") + ")";
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.devianta.command;
+
+import java.util.List;
+
+/**
+ * Plugin of commands found by {@link java.util.ServiceLoader}, see
+ * {@link CLI#loadPlugins()}. Provider is registered in
+ * {@code META-INF/services/com.devianta.command.CommandProvider} and should
+ * be light: it is loaded at startup, classes of commands are loaded on first
+ * invocation.
+ */
+public interface CommandProvider {
+
+    /**
+     * Return descriptors of commands
+     *
+     * @return
+     */
+    public List<CommandDescriptor> getCommands();
+
+}
@@ -0,0 +1,294 @@
+package com.devianta.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Commands of CLI and its sessions. Registry is published as immutable
+ * snapshot: update copies the path of changed keys in the current trie and
+ * swaps snapshot, so lookup takes one volatile read and no lock and update
+ * costs as the length of names.
+ */
+final class CommandRegistry {
+    private volatile Snapshot snapshot = new Snapshot(new CommandTrie<>());
+    // order of the next registration, guarded by this
+    private long order = 0;
+
+    CommandRegistry() {
+        super();
+    }
+
+    /**
+     * Return current commands
+     *
+     * @return
+     */
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Register command with synonyms, command with the same name is replaced
+     * with its synonyms. Name or synonym of new command is taken from
+     * synonyms of other commands.
+     *
+     * @param command
+     * @param synonyms
+     * @throws IllegalArgumentException
+     *             if synonym is name of other command
+     */
+    void add(Command command, String... synonyms) throws IllegalArgumentException {
+        update((editor) -> editor.add(command, synonyms));
+    }
+
+    /**
+     * Change registry by editor and publish one snapshot with all changes
+     *
+     * @param edit
+     * @throws IllegalArgumentException
+     *             from editor, nothing is published
+     */
+    synchronized void update(Consumer<Editor> edit) throws IllegalArgumentException {
+        Editor editor = new Editor(snapshot.trie.copy());
+        edit.accept(editor);
+        snapshot = new Snapshot(editor.trie);
+    }
+
+    /**
+     * Unregister command with its synonyms
+     *
+     * @param name
+     *            name or synonym of command
+     * @return removed command or null
+     */
+    synchronized Command remove(String name) {
+        Editor editor = new Editor(snapshot.trie.copy());
+        Command removed = editor.remove(name);
+        if (removed != null) {
+            snapshot = new Snapshot(editor.trie);
+        }
+        return removed;
+    }
+
+    /**
+     * Replace command with other command of the same name if it is still
+     * registered, synonyms and order of registration are kept
+     *
+     * @param old
+     * @param command
+     */
+    synchronized void replace(Command old, Command command) {
+        Entry entry = snapshot.trie.get(old.getName());
+        if (entry == null || entry.command != old) {
+            return;
+        }
+        CommandTrie<Entry> trie = snapshot.trie.copy();
+        Entry replaced = new Entry(command, entry.synonyms, entry.order);
+        trie.put(old.getName(), replaced);
+        for (String synonym : entry.synonyms) {
+            if (trie.get(synonym) == entry) {
+                trie.put(synonym, replaced);
+            }
+        }
+        snapshot = new Snapshot(trie);
+    }
+
+    /**
+     * Changes of registry which are published together. Owner of synonym is
+     * the value of synonym in trie, so no entry is scanned.
+     */
+    final class Editor {
+        private final CommandTrie<Entry> trie;
+
+        private Editor(CommandTrie<Entry> trie) {
+            super();
+            this.trie = trie;
+        }
+
+        /**
+         * Return command with exact name or synonym or null
+         *
+         * @param name
+         * @return
+         */
+        Command get(String name) {
+            Entry entry = trie.get(name);
+            return entry == null ? null : entry.command;
+        }
+
+        /**
+         * Register command, see {@link CommandRegistry#add(Command, String...)}
+         *
+         * @param command
+         * @param synonyms
+         * @throws IllegalArgumentException
+         *             if synonym is name of other command, editor is not
+         *             changed
+         */
+        void add(Command command, String... synonyms) throws IllegalArgumentException {
+            String name = command.getName();
+            for (String synonym : synonyms) {
+                Entry owner = trie.get(synonym);
+                if (!synonym.equals(name) && owner != null && owner.command.getName().equals(synonym)) {
+                    throw new IllegalArgumentException("Synonym \"" + synonym + "\" is name of other command");
+                }
+            }
+            unregister(name);
+            release(name);
+            for (String synonym : synonyms) {
+                release(synonym);
+            }
+
+            Entry entry = new Entry(command, synonyms.clone(), order++);
+            trie.put(name, entry);
+            for (String synonym : synonyms) {
+                trie.put(synonym, entry);
+            }
+        }
+
+        /**
+         * Unregister command with its synonyms
+         *
+         * @param name
+         *            name or synonym of command
+         * @return removed command or null
+         */
+        Command remove(String name) {
+            Entry entry = trie.get(name);
+            if (entry == null) {
+                return null;
+            }
+            unregister(entry.command.getName());
+            return entry.command;
+        }
+
+        /**
+         * Drop synonym from synonyms of its owner
+         */
+        private void release(String synonym) {
+            Entry owner = trie.get(synonym);
+            if (owner == null) {
+                return;
+            }
+            String[] rest = Arrays.stream(owner.synonyms).filter((s) -> !s.equals(synonym)).toArray(String[]::new);
+            Entry released = new Entry(owner.command, rest, owner.order);
+            trie.remove(synonym);
+            trie.put(owner.command.getName(), released);
+            for (String s : rest) {
+                if (trie.get(s) == owner) {
+                    trie.put(s, released);
+                }
+            }
+        }
+
+        private void unregister(String name) {
+            Entry entry = trie.get(name);
+            if (entry == null || !entry.command.getName().equals(name)) {
+                return;
+            }
+            trie.remove(name);
+            for (String synonym : entry.synonyms) {
+                // synonym can be taken by other command later
+                if (trie.get(synonym) == entry) {
+                    trie.remove(synonym);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registered command, its name and synonyms share one entry
+     */
+    private static final class Entry {
+        private final Command command;
+        private final String[] synonyms;
+        private final long order;
+
+        private Entry(Command command, String[] synonyms, long order) {
+            super();
+            this.command = command;
+            this.synonyms = synonyms;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Immutable commands of registry
+     */
+    static final class Snapshot {
+        private final CommandTrie<Entry> trie;
+        // built on first request
+        private volatile Map<String, String[]> synonyms;
+
+        private Snapshot(CommandTrie<Entry> trie) {
+            super();
+            this.trie = trie;
+        }
+
+        /**
+         * Return command with exact name or synonym or null
+         *
+         * @param name
+         * @return
+         */
+        Command get(CharSequence name) {
+            Entry entry = trie.get(name);
+            return entry == null ? null : entry.command;
+        }
+
+        /**
+         * Return command with exact name or the only command started with
+         * prefix or null
+         *
+         * @param prefix
+         * @return
+         */
+        Command resolve(CharSequence prefix) {
+            Entry entry = trie.resolve(prefix);
+            return entry == null ? null : entry.command;
+        }
+
+        /**
+         * Return names and synonyms started with prefix in alphabetical order
+         *
+         * @param prefix
+         * @return
+         */
+        List<String> complete(CharSequence prefix) {
+            return trie.complete(prefix);
+        }
+
+        /**
+         * Return synonyms of every command name in order of registration
+         *
+         * @return
+         */
+        Map<String, String[]> getSynonyms() {
+            Map<String, String[]> current = synonyms;
+            if (current == null) {
+                List<Entry> entries = new ArrayList<>();
+                for (String key : trie.complete("")) {
+                    Entry entry = trie.get(key);
+                    if (entry.command.getName().equals(key)) {
+                        entries.add(entry);
+                    }
+                }
+                entries.sort(Comparator.comparingLong((e) -> e.order));
+                Map<String, String[]> names = new LinkedHashMap<>();
+                for (Entry entry : entries) {
+                    names.put(entry.command.getName(), entry.synonyms);
+                }
+                current = Collections.unmodifiableMap(names);
+                synonyms = current;
+            }
+            return current;
+        }
+    }
+
+}
@@ -5,8 +5,8 @@ public interface CommandRun {
      * Implement command
      * 
      * @param cli
-     * @param command
+     * @param invocation
      */
-    public void runCommand(CLI cli, Command command);
+    public void runCommand(CLI cli, Invocation invocation);
 
 }
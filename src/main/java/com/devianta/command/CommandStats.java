@@ -0,0 +1,178 @@
+package com.devianta.command;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Always-on counters and latency histograms of one Command
+ */
+public final class CommandStats {
+
+    /**
+     * Phase of command invocation
+     */
+    public enum Phase {
+        /** Parse of line and search of command */
+        PARSE,
+        /** Check of arguments count and names */
+        VALIDATE,
+        /** Conversion and validation of argument values */
+        CONVERT,
+        /** Run of CommandRun */
+        EXECUTE
+    }
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LatencyHistogram[] latency = new LatencyHistogram[Phase.values().length];
+
+    CommandStats() {
+        super();
+        for (int i = 0; i < latency.length; i++) {
+            latency[i] = new LatencyHistogram();
+        }
+    }
+
+    // Collectors
+
+    void invoked() {
+        invocations.increment();
+    }
+
+    void failed() {
+        errors.increment();
+    }
+
+    void rejected() {
+        rejections.increment();
+    }
+
+    void timedOut() {
+        timeouts.increment();
+    }
+
+    void record(Phase phase, long nanos) {
+        latency[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Return copy of current counters
+     * 
+     * @param name
+     * @return
+     */
+    Snapshot snapshot(String name) {
+        Map<Phase, LatencyHistogram.Snapshot> phases = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, latency[phase.ordinal()].snapshot());
+        }
+        return new Snapshot(name, invocations.sum(), errors.sum(), rejections.sum(), timeouts.sum(), phases);
+    }
+
+    /**
+     * Immutable counters of command
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final long invocations;
+        private final long errors;
+        private final long rejections;
+        private final long timeouts;
+        private final Map<Phase, LatencyHistogram.Snapshot> latency;
+
+        Snapshot(String name, long invocations, long errors, long rejections, long timeouts,
+                Map<Phase, LatencyHistogram.Snapshot> latency) {
+            super();
+            this.name = name;
+            this.invocations = invocations;
+            this.errors = errors;
+            this.rejections = rejections;
+            this.timeouts = timeouts;
+            this.latency = latency;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Return count of bound lines, failed lines are counted too
+         * 
+         * @return
+         */
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * Return count of failed binds and runs
+         * 
+         * @return
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Return count of runs rejected by executor
+         * 
+         * @return
+         */
+        public long getRejections() {
+            return rejections;
+        }
+
+        /**
+         * Return count of runs interrupted by timeout
+         * 
+         * @return
+         */
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        /**
+         * Return latency histogram of phase
+         * 
+         * @param phase
+         * @return
+         */
+        public LatencyHistogram.Snapshot getLatency(Phase phase) {
+            return latency.get(phase);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(" %-20s  calls %d, errors %d, rejected %d, timeouts %d", name, invocations,
+                    errors, rejections, timeouts));
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram.Snapshot h = latency.get(phase);
+                if (h.getCount() == 0) {
+                    continue;
+                }
+                sb.append(System.lineSeparator());
+                sb.append(String.format("   %-8s  p50 %9s  p99 %9s  p999 %9s  max %9s", phase.name().toLowerCase(Locale.ROOT),
+                        duration(h.getPercentile(50)), duration(h.getPercentile(99)),
+                        duration(h.getPercentile(99.9)), duration(h.getMax())));
+            }
+            return sb.toString();
+        }
+
+        private static String duration(long nanos) {
+            if (nanos < 1000) {
+                return nanos + " ns";
+            } else if (nanos < 1000000) {
+                return String.format("%.1f us", nanos / 1e3);
+            } else if (nanos < 1000000000) {
+                return String.format("%.1f ms", nanos / 1e6);
+            }
+            return String.format("%.2f s", nanos / 1e9);
+        }
+    }
+
+}
@@ -0,0 +1,372 @@
+package com.devianta.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Radix trie of command names and synonyms. Every node keeps the value of its
+ * subtree if only one value is there, so exact lookup, prefix resolution and
+ * completion walk only the characters of key. Values are compared by
+ * reference, so name and synonyms of one command share one value.
+ */
+final class CommandTrie<V> {
+    private static final char[] NO_KEYS = new char[0];
+
+    // nodes created or copied by this trie, only they are changed
+    private final Object owner = new Object();
+    private final Node<V> root;
+    private int size;
+
+    CommandTrie() {
+        super();
+        this.root = new Node<>("", owner);
+    }
+
+    private CommandTrie(CommandTrie<V> source) {
+        super();
+        this.root = source.root.copy(owner);
+        this.size = source.size;
+    }
+
+    /**
+     * Return copy of trie which shares nodes with this trie. Put and remove
+     * copy only nodes on path of key, so update costs as the length of key.
+     * This trie should not be changed after copy.
+     * 
+     * @return
+     */
+    CommandTrie<V> copy() {
+        return new CommandTrie<>(this);
+    }
+
+    // Update
+
+    /**
+     * Put value with name, value with the same name is replaced
+     * 
+     * @param name
+     * @param value
+     */
+    void put(String name, V value) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int i = 0;
+        path.add(node);
+        while (i < name.length()) {
+            int c = node.indexOf(name.charAt(i));
+            if (c < 0) {
+                node = node.add(new Node<>(name.substring(i), owner));
+                i = name.length();
+            } else {
+                Node<V> child = node.own(c, owner);
+                int common = common(child.label, name, i);
+                if (common < child.label.length()) {
+                    child = node.split(c, common, owner);
+                }
+                node = child;
+                i += common;
+            }
+            path.add(node);
+        }
+        if (node.value == null) {
+            size += 1;
+        }
+        node.value = value;
+        update(path);
+    }
+
+    /**
+     * Remove name
+     * 
+     * @param name
+     * @return removed value or null
+     */
+    V remove(String name) {
+        if (get(name) == null) {
+            return null;
+        }
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int i = 0;
+        path.add(node);
+        while (i < name.length()) {
+            node = node.own(node.indexOf(name.charAt(i)), owner);
+            i += node.label.length();
+            path.add(node);
+        }
+        V removed = node.value;
+        size -= 1;
+        node.value = null;
+        // drop empty nodes, the root is kept
+        for (int p = path.size() - 1; p > 0 && path.get(p).value == null && path.get(p).children.length == 0; p--) {
+            path.get(p - 1).remove(path.get(p));
+            path.remove(p);
+        }
+        update(path);
+        return removed;
+    }
+
+    private static <V> void update(List<Node<V>> path) {
+        for (int p = path.size() - 1; p >= 0; p--) {
+            path.get(p).summarize();
+        }
+    }
+
+    // Lookup
+
+    /**
+     * Return value with exact name or null
+     * 
+     * @param name
+     * @return
+     */
+    V get(CharSequence name) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < name.length()) {
+            int c = node.indexOf(name.charAt(i));
+            if (c < 0 || !matches(node.children[c].label, name, i)) {
+                return null;
+            }
+            node = node.children[c];
+            i += node.label.length();
+        }
+        return node.value;
+    }
+
+    /**
+     * Return value with exact name or the only value which name or synonym
+     * starts with prefix. Return null if prefix is unknown or ambiguous.
+     * 
+     * @param prefix
+     * @return
+     */
+    V resolve(CharSequence prefix) {
+        if (prefix.length() == 0) {
+            return null;
+        }
+        V value = get(prefix);
+        if (value != null) {
+            return value;
+        }
+        Node<V> node = find(prefix, null);
+        return node == null || node.ambiguous ? null : node.unique;
+    }
+
+    /**
+     * Return names and synonyms started with prefix in alphabetical order
+     * 
+     * @param prefix
+     * @return
+     */
+    List<String> complete(CharSequence prefix) {
+        StringBuilder key = new StringBuilder();
+        Node<V> node = find(prefix, key);
+        List<String> names = new ArrayList<>();
+        if (node != null) {
+            key.setLength(key.length() - node.label.length());
+            collect(node, key, names);
+        }
+        return names;
+    }
+
+    /**
+     * Return count of names
+     * 
+     * @return
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Return node which subtree contains all keys started with prefix. Label
+     * of node is a continuation of prefix.
+     */
+    private Node<V> find(CharSequence prefix, StringBuilder key) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int c = node.indexOf(prefix.charAt(i));
+            if (c < 0) {
+                return null;
+            }
+            Node<V> child = node.children[c];
+            int length = Math.min(child.label.length(), prefix.length() - i);
+            for (int k = 1; k < length; k++) {
+                if (child.label.charAt(k) != prefix.charAt(i + k)) {
+                    return null;
+                }
+            }
+            node = child;
+            i += child.label.length();
+            if (key != null) {
+                key.append(child.label);
+            }
+        }
+        return node;
+    }
+
+    private static <V> void collect(Node<V> node, StringBuilder key, List<String> names) {
+        int length = key.length();
+        key.append(node.label);
+        if (node.value != null) {
+            names.add(key.toString());
+        }
+        for (Node<V> child : node.children) {
+            collect(child, key, names);
+        }
+        key.setLength(length);
+    }
+
+    private static int common(String label, String name, int from) {
+        int max = Math.min(label.length(), name.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == name.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean matches(String label, CharSequence name, int from) {
+        if (name.length() - from < label.length()) {
+            return false;
+        }
+        for (int i = 0; i < label.length(); i++) {
+            if (label.charAt(i) != name.charAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trie node, children are ordered by first character of label. Node is
+     * changed only by trie which owns it, other tries copy it first.
+     */
+    private static final class Node<V> {
+        private final Object owner;
+        private String label;
+        private char[] keys = NO_KEYS;
+        private Node<V>[] children = empty();
+        private V value;
+        // the only value of subtree
+        private V unique;
+        private boolean ambiguous;
+
+        Node(String label, Object owner) {
+            super();
+            this.label = label;
+            this.owner = owner;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] empty() {
+            return (Node<V>[]) new Node<?>[0];
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] array(int length) {
+            return (Node<V>[]) new Node<?>[length];
+        }
+
+        /**
+         * Return copy owned by other trie, children are shared
+         */
+        Node<V> copy(Object newOwner) {
+            Node<V> node = new Node<>(label, newOwner);
+            // keys are replaced, not changed, so they are shared
+            node.keys = keys;
+            node.children = children.clone();
+            node.value = value;
+            node.unique = unique;
+            node.ambiguous = ambiguous;
+            return node;
+        }
+
+        /**
+         * Return child at index which can be changed by owner, child of
+         * other trie is copied
+         */
+        Node<V> own(int index, Object trieOwner) {
+            Node<V> child = children[index];
+            if (child.owner != trieOwner) {
+                child = child.copy(trieOwner);
+                children[index] = child;
+            }
+            return child;
+        }
+
+        int indexOf(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? -1 : i;
+        }
+
+        Node<V> add(Node<V> child) {
+            int i = -Arrays.binarySearch(keys, child.label.charAt(0)) - 1;
+            keys = insert(keys, i, child.label.charAt(0));
+            Node<V>[] grown = array(children.length + 1);
+            System.arraycopy(children, 0, grown, 0, i);
+            System.arraycopy(children, i, grown, i + 1, children.length - i);
+            grown[i] = child;
+            children = grown;
+            return child;
+        }
+
+        void remove(Node<V> child) {
+            int i = indexOf(child.label.charAt(0));
+            char[] fewerKeys = new char[keys.length - 1];
+            Node<V>[] fewer = array(children.length - 1);
+            System.arraycopy(keys, 0, fewerKeys, 0, i);
+            System.arraycopy(keys, i + 1, fewerKeys, i, fewerKeys.length - i);
+            System.arraycopy(children, 0, fewer, 0, i);
+            System.arraycopy(children, i + 1, fewer, i, fewer.length - i);
+            keys = fewerKeys;
+            children = fewer;
+        }
+
+        /**
+         * Split owned child label at position, return new middle node
+         */
+        Node<V> split(int index, int at, Object trieOwner) {
+            Node<V> child = children[index];
+            Node<V> middle = new Node<>(child.label.substring(0, at), trieOwner);
+            child.label = child.label.substring(at);
+            middle.keys = new char[] { child.label.charAt(0) };
+            Node<V>[] one = array(1);
+            one[0] = child;
+            middle.children = one;
+            middle.unique = child.unique;
+            middle.ambiguous = child.ambiguous;
+            children[index] = middle;
+            return middle;
+        }
+
+        void summarize() {
+            V only = value;
+            boolean many = false;
+            for (Node<V> child : children) {
+                if (child.unique == null && !child.ambiguous) {
+                    continue;
+                }
+                if (child.ambiguous || (only != null && child.unique != only)) {
+                    many = true;
+                    break;
+                }
+                only = child.unique;
+            }
+            unique = many ? null : only;
+            ambiguous = many;
+        }
+
+        private static char[] insert(char[] array, int i, char c) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, i);
+            System.arraycopy(array, i, grown, i + 1, array.length - i);
+            grown[i] = c;
+            return grown;
+        }
+    }
+
+}
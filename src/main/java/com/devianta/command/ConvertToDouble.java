@@ -0,0 +1,43 @@
+package com.devianta.command;
+
+public class ConvertToDouble implements Converter<Double>, DoubleConverter {
+    private static final Validation NOT_CONVERTED = Validation.notConverted("number value expected");
+
+    /**
+     * Convert value to Double
+     */
+    @Override
+    public Double convert(String str) throws IllegalArgumentException {
+        return convert(str, 0, str.length());
+    }
+
+    /**
+     * Convert region of characters to double
+     */
+    @Override
+    public double convert(CharSequence chars, int from, int to) throws IllegalArgumentException {
+        try {
+            return Numbers.parseDouble(chars, from, to);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Value \"" + chars.subSequence(from, to) + "\" did not converted, number value expected");
+        }
+    }
+
+    /**
+     * Check value without exception
+     */
+    @Override
+    public Validation check(String str) {
+        return check(str, 0, str.length());
+    }
+
+    /**
+     * Check region of characters without exception
+     */
+    @Override
+    public Validation check(CharSequence chars, int from, int to) {
+        return Numbers.isDouble(chars, from, to) ? Validation.OK : NOT_CONVERTED;
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.devianta.command;
 
-public class ConvertToInteger implements Converter<Integer> {
+public class ConvertToInteger implements Converter<Integer>, IntConverter {
+    private static final Validation NOT_CONVERTED = Validation.notConverted("integer value expected");
 
     /**
      * Convert value to Integer
@@ -16,4 +17,33 @@ public class ConvertToInteger implements Converter<Integer> {
         return value;
     }
 
+    /**
+     * Convert region of characters to int
+     */
+    @Override
+    public int convert(CharSequence chars, int from, int to) throws IllegalArgumentException {
+        try {
+            return Numbers.parseInt(chars, from, to);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Value \"" + chars.subSequence(from, to) + "\" did not converted, integer value expected");
+        }
+    }
+
+    /**
+     * Check value without exception
+     */
+    @Override
+    public Validation check(String str) {
+        return check(str, 0, str.length());
+    }
+
+    /**
+     * Check region of characters without exception
+     */
+    @Override
+    public Validation check(CharSequence chars, int from, int to) {
+        return Numbers.isInt(chars, from, to) ? Validation.OK : NOT_CONVERTED;
+    }
+
 }
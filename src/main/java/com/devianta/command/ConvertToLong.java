@@ -0,0 +1,43 @@
+package com.devianta.command;
+
+public class ConvertToLong implements Converter<Long>, LongConverter {
+    private static final Validation NOT_CONVERTED = Validation.notConverted("integer value expected");
+
+    /**
+     * Convert value to Long
+     */
+    @Override
+    public Long convert(String str) throws IllegalArgumentException {
+        return convert(str, 0, str.length());
+    }
+
+    /**
+     * Convert region of characters to long
+     */
+    @Override
+    public long convert(CharSequence chars, int from, int to) throws IllegalArgumentException {
+        try {
+            return Numbers.parseLong(chars, from, to);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Value \"" + chars.subSequence(from, to) + "\" did not converted, integer value expected");
+        }
+    }
+
+    /**
+     * Check value without exception
+     */
+    @Override
+    public Validation check(String str) {
+        return check(str, 0, str.length());
+    }
+
+    /**
+     * Check region of characters without exception
+     */
+    @Override
+    public Validation check(CharSequence chars, int from, int to) {
+        return Numbers.isLong(chars, from, to) ? Validation.OK : NOT_CONVERTED;
+    }
+
+}
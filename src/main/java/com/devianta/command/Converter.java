@@ -11,4 +11,15 @@ public interface Converter<T> {
      */
     public T convert(String str) throws IllegalArgumentException;
 
+    /**
+     * Check value before conversion without exception. By default every value
+     * is accepted and exception of convert is reported as error.
+     * 
+     * @param str
+     * @return
+     */
+    public default Validation check(String str) {
+        return Validation.OK;
+    }
+
 }
@@ -0,0 +1,125 @@
+package com.devianta.command;
+
+/**
+ * Argument with double value. Value is parsed from characters of line and kept
+ * in Invocation without boxing, use {@link Invocation#getDouble(String)}.
+ */
+public class DoubleArgument extends Argument<Double> {
+    private DoubleConverter doubleConverter = new ConvertToDouble();
+    private DoubleValidator doubleValidator = (n) -> true;
+
+    public DoubleArgument(String description, boolean required) {
+        super(description, required);
+    }
+
+    // chain setters
+
+    @Override
+    public DoubleArgument setName(String fullName) {
+        super.setName(fullName);
+        return this;
+    }
+
+    @Override
+    public DoubleArgument setName(String shortName, String fullName) {
+        super.setName(shortName, fullName);
+        return this;
+    }
+
+    /**
+     * Set converter of boxed values, prefer {@link #setDoubleConverter}
+     */
+    @Override
+    public DoubleArgument setConverter(Converter<Double> converter) {
+        super.setConverter(converter);
+        this.doubleConverter = new DoubleConverter() {
+            @Override
+            public double convert(CharSequence chars, int from, int to) {
+                return converter.convert(chars.subSequence(from, to).toString());
+            }
+
+            @Override
+            public Validation check(CharSequence chars, int from, int to) {
+                return converter.check(chars.subSequence(from, to).toString());
+            }
+        };
+        return this;
+    }
+
+    /**
+     * Set validator of boxed values, prefer {@link #setDoubleValidator}
+     */
+    @Override
+    public DoubleArgument setValidator(Validator<Double> validator) {
+        super.setValidator(validator);
+        this.doubleValidator = new DoubleValidator() {
+            @Override
+            public boolean validate(double value) {
+                return validator.validate(value);
+            }
+
+            @Override
+            public Validation check(double value) {
+                return validator.check(value);
+            }
+        };
+        return this;
+    }
+
+    @Override
+    public DoubleArgument setFileConverter(FileConverter<Double> fileConverter) {
+        super.setFileConverter(fileConverter);
+        return this;
+    }
+
+    public DoubleArgument setDoubleConverter(DoubleConverter converter) {
+        this.doubleConverter = converter;
+        return this;
+    }
+
+    public DoubleArgument setDoubleValidator(DoubleValidator validator) {
+        this.doubleValidator = validator;
+        return this;
+    }
+
+    // conversion
+
+    @Override
+    protected Validation tryFill(String source, int from, int to, Object[] values, long[] primitives, int slot) {
+        Validation result = doubleConverter.check(source, from, to);
+        if (!result.isValid()) {
+            return result;
+        }
+        double converted;
+        try {
+            converted = doubleConverter.convert(source, from, to);
+        } catch (IllegalArgumentException e) {
+            return Validation.fail(BindError.Code.NOT_CONVERTED, e.getMessage());
+        }
+        result = doubleValidator.check(converted);
+        if (result.isValid()) {
+            primitives[slot] = Double.doubleToRawLongBits(converted);
+        }
+        return result;
+    }
+
+    @Override
+    protected Validation tryPut(Double converted, Object[] values, long[] primitives, int slot) {
+        Validation result = doubleValidator.check(converted);
+        if (result.isValid()) {
+            primitives[slot] = Double.doubleToRawLongBits(converted);
+        }
+        return result;
+    }
+
+    @Override
+    protected boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    protected Object value(Object[] values, long[] primitives, int slot) {
+        return Double.longBitsToDouble(primitives[slot]);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.devianta.command;
+
+public interface DoubleConverter {
+
+    /**
+     * Implement double argument converter, value is region of characters
+     * 
+     * @param chars
+     * @param from
+     * @param to
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public double convert(CharSequence chars, int from, int to) throws IllegalArgumentException;
+
+    /**
+     * Check region before conversion without exception. By default every
+     * region is accepted and exception of convert is reported as error.
+     * 
+     * @param chars
+     * @param from
+     * @param to
+     * @return
+     */
+    public default Validation check(CharSequence chars, int from, int to) {
+        return Validation.OK;
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.devianta.command;
+
+public interface DoubleValidator {
+
+    /**
+     * Implement double argument validator
+     * 
+     * @param value
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public boolean validate(double value) throws IllegalArgumentException;
+
+    /**
+     * Validate without exception. By default result of validate is adapted.
+     * 
+     * @param value
+     * @return
+     */
+    public default Validation check(double value) {
+        try {
+            return validate(value) ? Validation.OK : Validation.FALSE;
+        } catch (IllegalArgumentException e) {
+            return Validation.fail(BindError.Code.NOT_VALID, e.getMessage());
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.devianta.command;
 
 public class EmptyArgumentValidator implements Validator<String> {
+    private static final Validation NOT_EMPTY = Validation.fail(BindError.Code.NOT_VALID, "Unexpected value \"",
+            "\" in command");
 
     /**
      * Validate named argument. Argument value should be empty. 
@@ -8,9 +10,17 @@ public class EmptyArgumentValidator implements Validator<String> {
     @Override
     public boolean validate(String str) throws IllegalArgumentException {
         if (!str.isEmpty()) {
-            throw new IllegalArgumentException("Unexpected value \"" + str + "\" in command");
+            throw new IllegalArgumentException(NOT_EMPTY.format(str));
         }
         return true;
     }
 
+    /**
+     * Check named argument without exception
+     */
+    @Override
+    public Validation check(String str) {
+        return str.isEmpty() ? Validation.OK : NOT_EMPTY;
+    }
+
 }
\ No newline at end of file
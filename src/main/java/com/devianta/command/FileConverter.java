@@ -0,0 +1,19 @@
+package com.devianta.command;
+
+/**
+ * Converter of file reference {@code @path}. File is not read before
+ * conversion, converter can stream over views of FileValue or keep FileValue
+ * itself as argument value.
+ */
+public interface FileConverter<T> {
+
+    /**
+     * Implement file converter
+     *
+     * @param file
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public T convert(FileValue file) throws IllegalArgumentException;
+
+}
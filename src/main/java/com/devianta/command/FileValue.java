@@ -0,0 +1,235 @@
+package com.devianta.command;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Value of file reference {@code @path}. File is opened and mapped to memory
+ * on first access, content is read through views of the mapping, so large
+ * file never becomes String. Channel is closed after mapping, mapping is
+ * released with the last view.
+ */
+public final class FileValue {
+    private final Path path;
+    private ByteBuffer mapping;
+
+    /**
+     * New value of file, file is not opened
+     *
+     * @param path
+     */
+    public FileValue(Path path) {
+        super();
+        if (path == null) {
+            throw new IllegalArgumentException("Null pointer in file value");
+        }
+        this.path = path;
+    }
+
+    // Getters
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Return size of file in bytes
+     *
+     * @return
+     * @throws UncheckedIOException
+     *             if file can't be read
+     * @throws IllegalArgumentException
+     *             if file is larger than 2 GB
+     */
+    public int size() throws UncheckedIOException, IllegalArgumentException {
+        return map().capacity();
+    }
+
+    // Views
+
+    /**
+     * Return read-only view of file bytes, every call returns new view with
+     * own position
+     *
+     * @return
+     * @throws UncheckedIOException
+     *             if file can't be read
+     * @throws IllegalArgumentException
+     *             if file is larger than 2 GB
+     */
+    public ByteBuffer bytes() throws UncheckedIOException, IllegalArgumentException {
+        return map().duplicate();
+    }
+
+    /**
+     * Return view of file with one char per byte. View is exact for ASCII and
+     * ISO-8859-1 text, for example numbers and identifiers, and can be passed
+     * to IntConverter and other converters of regions.
+     *
+     * @return
+     * @throws UncheckedIOException
+     *             if file can't be read
+     * @throws IllegalArgumentException
+     *             if file is larger than 2 GB
+     */
+    public CharSequence chars() throws UncheckedIOException, IllegalArgumentException {
+        ByteBuffer bytes = map();
+        return new ByteChars(bytes, 0, bytes.capacity());
+    }
+
+    /**
+     * Return stream of file bytes
+     *
+     * @return
+     * @throws UncheckedIOException
+     *             if file can't be read
+     * @throws IllegalArgumentException
+     *             if file is larger than 2 GB
+     */
+    public InputStream openStream() throws UncheckedIOException, IllegalArgumentException {
+        return new ByteStream(bytes());
+    }
+
+    /**
+     * Return reader which decodes file text while it is read
+     *
+     * @param charset
+     * @return
+     * @throws UncheckedIOException
+     *             if file can't be read
+     * @throws IllegalArgumentException
+     *             if file is larger than 2 GB
+     */
+    public Reader openReader(Charset charset) throws UncheckedIOException, IllegalArgumentException {
+        return new InputStreamReader(openStream(), charset);
+    }
+
+    /**
+     * Decode whole file to String
+     *
+     * @param charset
+     * @return
+     * @throws UncheckedIOException
+     *             if file can't be read
+     * @throws IllegalArgumentException
+     *             if file is larger than 2 GB
+     */
+    public String readString(Charset charset) throws UncheckedIOException, IllegalArgumentException {
+        return charset.decode(bytes()).toString();
+    }
+
+    private synchronized ByteBuffer map() throws UncheckedIOException, IllegalArgumentException {
+        if (mapping == null) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("File \"" + path + "\" is larger than 2 GB");
+                }
+                mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("File \"" + path + "\" can't be read", e);
+            }
+        }
+        return mapping;
+    }
+
+    @Override
+    public String toString() {
+        return CLIParam.FILE_PREFIX + path.toString();
+    }
+
+    /**
+     * Chars of byte region, byte is char code
+     */
+    private static final class ByteChars implements CharSequence {
+        private final ByteBuffer bytes;
+        private final int from;
+        private final int to;
+
+        private ByteChars(ByteBuffer bytes, int from, int to) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public int length() {
+            return to - from;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+            }
+            return (char) (bytes.get(from + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > to - from || start > end) {
+                throw new IndexOutOfBoundsException("Region: " + start + ", " + end + ", Size: " + (to - from));
+            }
+            return new ByteChars(bytes, from + start, from + end);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(to - from);
+            for (int i = from; i < to; i++) {
+                sb.append((char) (bytes.get(i) & 0xFF));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Stream over own view of mapping
+     */
+    private static final class ByteStream extends InputStream {
+        private final ByteBuffer bytes;
+
+        private ByteStream(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!bytes.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, bytes.remaining());
+            bytes.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, bytes.remaining()));
+            bytes.position(bytes.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return bytes.remaining();
+        }
+    }
+
+}
@@ -0,0 +1,280 @@
+package com.devianta.command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command history in fixed capacity ring buffer. Lines can be written to
+ * append-only journal file and loaded from it on start. Lines are indexed for
+ * prefix and substring search.
+ */
+public final class History {
+    /**
+     * Default count of stored lines
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+    private static final int INITIAL_SIZE = 16;
+
+    private final int capacity;
+    // ring grows up to capacity, so empty history of session is small
+    private String[] lines;
+    private final HistoryIndex index = new HistoryIndex();
+    // sequence numbers of the oldest and next line
+    private long first;
+    private long next;
+    private HistoryJournal journal;
+
+    /**
+     * New History with default capacity
+     */
+    public History() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * New History
+     * 
+     * @param capacity
+     */
+    public History(int capacity) {
+        super();
+        if (capacity < 1) {
+            throw new IllegalArgumentException("History capacity should be positive");
+        }
+        this.capacity = capacity;
+        lines = new String[Math.min(capacity, INITIAL_SIZE)];
+    }
+
+    // Journal
+
+    /**
+     * Open journal file, last lines of journal are loaded to history and new
+     * lines are appended to journal
+     * 
+     * @param file
+     * @throws IOException
+     */
+    public synchronized void openJournal(Path file) throws IOException {
+        closeJournal();
+        for (String line : HistoryJournal.readTail(file, capacity)) {
+            put(line);
+        }
+        journal = new HistoryJournal(file);
+    }
+
+    /**
+     * Write pending lines and close journal file
+     */
+    public synchronized void closeJournal() {
+        if (journal != null) {
+            HistoryJournal current = journal;
+            journal = null;
+            try {
+                current.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Setters
+
+    /**
+     * Add line to history, the oldest line is dropped if history is full
+     * 
+     * @param line
+     * @throws UncheckedIOException
+     *             if journal can't be written
+     */
+    public synchronized void add(String line) throws UncheckedIOException {
+        put(line);
+        if (journal != null) {
+            try {
+                journal.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Remove all lines from history and journal
+     * 
+     * @throws UncheckedIOException
+     *             if journal can't be truncated
+     */
+    public synchronized void clear() throws UncheckedIOException {
+        Arrays.fill(lines, null);
+        index.clear();
+        first = next;
+        if (journal != null) {
+            try {
+                journal.truncate();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void put(String line) {
+        if (next - first == lines.length) {
+            if (lines.length < capacity) {
+                grow();
+            } else {
+                index.remove(first, line(first));
+                first += 1;
+            }
+        }
+        lines[(int) (next % lines.length)] = line;
+        index.add(next, line);
+        next += 1;
+    }
+
+    private void grow() {
+        String[] grown = new String[(int) Math.min((long) lines.length * 2, capacity)];
+        for (long seq = first; seq < next; seq++) {
+            grown[(int) (seq % grown.length)] = line(seq);
+        }
+        lines = grown;
+    }
+
+    private String line(long seq) {
+        return lines[(int) (seq % lines.length)];
+    }
+
+    // Getters
+
+    /**
+     * Return count of lines
+     * 
+     * @return
+     */
+    public synchronized int size() {
+        return (int) (next - first);
+    }
+
+    /**
+     * Return capacity of history
+     * 
+     * @return
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Return line with index, index 0 is the oldest line
+     * 
+     * @param index
+     * @return
+     */
+    public synchronized String get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return line(first + index);
+    }
+
+    /**
+     * Return last n lines, the oldest first
+     * 
+     * @param n
+     * @return
+     */
+    public synchronized List<String> tail(int n) {
+        int count = Math.min(Math.max(n, 0), size());
+        List<String> list = new ArrayList<>(count);
+        for (long seq = next - count; seq < next; seq++) {
+            list.add(line(seq));
+        }
+        return list;
+    }
+
+    /**
+     * Return all lines, the oldest first
+     * 
+     * @return
+     */
+    public List<String> all() {
+        return tail(Integer.MAX_VALUE);
+    }
+
+    // Search
+
+    /**
+     * Return lines started with prefix, the oldest first
+     * 
+     * @param prefix
+     * @return
+     */
+    public synchronized List<String> findByPrefix(String prefix) {
+        HistoryIndex.Postings candidates = index.prefix(prefix);
+        boolean check = prefix.length() > HistoryIndex.PREFIX_DEPTH;
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            String line = line(candidates.get(i));
+            if (!check || line.startsWith(prefix)) {
+                list.add(line);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Return lines contained pattern, the oldest first
+     * 
+     * @param pattern
+     * @return
+     */
+    public synchronized List<String> find(String pattern) {
+        HistoryIndex.Postings candidates = index.substring(pattern);
+        List<String> list = new ArrayList<>();
+        if (candidates == null) {
+            // pattern is shorter than indexed substrings
+            for (long seq = first; seq < next; seq++) {
+                if (line(seq).contains(pattern)) {
+                    list.add(line(seq));
+                }
+            }
+            return list;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            String line = line(candidates.get(i));
+            if (line.contains(pattern)) {
+                list.add(line);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Return the most recent line contained pattern or null, as reverse
+     * search of shell
+     * 
+     * @param pattern
+     * @return
+     */
+    public synchronized String findLast(String pattern) {
+        HistoryIndex.Postings candidates = index.substring(pattern);
+        if (candidates == null) {
+            for (long seq = next - 1; seq >= first; seq--) {
+                if (line(seq).contains(pattern)) {
+                    return line(seq);
+                }
+            }
+            return null;
+        }
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            String line = line(candidates.get(i));
+            if (line.contains(pattern)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+}
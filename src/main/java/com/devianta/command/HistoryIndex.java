@@ -0,0 +1,239 @@
+package com.devianta.command;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Search index of history lines. Lines are identified by sequence number,
+ * postings of every key are ordered by sequence number, so new line is
+ * appended to the end and evicted line is removed from the start.
+ * <p>
+ * Prefix trie indexes first {@link #PREFIX_DEPTH} characters of line,
+ * trigram postings index every three characters of line.
+ */
+final class HistoryIndex {
+    /**
+     * Count of first characters of line in prefix trie, longer prefixes are
+     * checked on candidates
+     */
+    static final int PREFIX_DEPTH = 32;
+    /**
+     * Length of indexed substrings, shorter patterns are searched by scan
+     */
+    static final int GRAM = 3;
+
+    private final Node root = new Node();
+    private final Map<Long, Postings> grams = new HashMap<>();
+
+    HistoryIndex() {
+        super();
+    }
+
+    // Update
+
+    /**
+     * Index new line, sequence number should be greater than numbers of all
+     * indexed lines
+     * 
+     * @param seq
+     * @param line
+     */
+    void add(long seq, String line) {
+        Node node = root;
+        node.postings.add(seq);
+        for (int i = 0, depth = Math.min(line.length(), PREFIX_DEPTH); i < depth; i++) {
+            node = node.child(line.charAt(i), true);
+            node.postings.add(seq);
+        }
+        for (int i = 0; i + GRAM <= line.length(); i++) {
+            Long key = gram(line, i);
+            Postings postings = grams.get(key);
+            if (postings == null) {
+                postings = new Postings();
+                grams.put(key, postings);
+            }
+            postings.add(seq);
+        }
+    }
+
+    /**
+     * Remove the oldest indexed line
+     * 
+     * @param seq
+     * @param line
+     */
+    void remove(long seq, String line) {
+        Node node = root;
+        node.postings.removeFirst(seq);
+        for (int i = 0, depth = Math.min(line.length(), PREFIX_DEPTH); i < depth && node != null; i++) {
+            Node child = node.child(line.charAt(i), false);
+            if (child != null) {
+                child.postings.removeFirst(seq);
+                if (child.postings.isEmpty()) {
+                    node.removeChild(line.charAt(i));
+                    break;
+                }
+            }
+            node = child;
+        }
+        for (int i = 0; i + GRAM <= line.length(); i++) {
+            Long key = gram(line, i);
+            Postings postings = grams.get(key);
+            if (postings != null) {
+                postings.removeFirst(seq);
+                if (postings.isEmpty()) {
+                    grams.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all lines
+     */
+    void clear() {
+        root.clear();
+        grams.clear();
+    }
+
+    // Search
+
+    /**
+     * Return candidates of lines started with prefix. Every candidate should
+     * be checked if prefix is longer than {@link #PREFIX_DEPTH}.
+     * 
+     * @param prefix
+     * @return
+     */
+    Postings prefix(CharSequence prefix) {
+        Node node = root;
+        for (int i = 0, depth = Math.min(prefix.length(), PREFIX_DEPTH); i < depth && node != null; i++) {
+            node = node.child(prefix.charAt(i), false);
+        }
+        return node == null ? Postings.EMPTY : node.postings;
+    }
+
+    /**
+     * Return candidates of lines contained pattern, the shortest postings of
+     * pattern trigrams. Every candidate should be checked. Return null if
+     * pattern is shorter than {@link #GRAM}.
+     * 
+     * @param pattern
+     * @return
+     */
+    Postings substring(CharSequence pattern) {
+        if (pattern.length() < GRAM) {
+            return null;
+        }
+        Postings shortest = null;
+        for (int i = 0; i + GRAM <= pattern.length(); i++) {
+            Postings postings = grams.get(gram(pattern, i));
+            if (postings == null) {
+                return Postings.EMPTY;
+            }
+            if (shortest == null || postings.size() < shortest.size()) {
+                shortest = postings;
+            }
+        }
+        return shortest;
+    }
+
+    private static Long gram(CharSequence s, int from) {
+        return ((long) s.charAt(from) << 32) | ((long) s.charAt(from + 1) << 16) | s.charAt(from + 2);
+    }
+
+    /**
+     * Ordered sequence numbers of lines
+     */
+    static final class Postings {
+        static final Postings EMPTY = new Postings();
+
+        private long[] seqs = new long[2];
+        private int head;
+        private int tail;
+
+        void add(long seq) {
+            if (tail > head && seqs[tail - 1] == seq) {
+                // key repeated in the same line
+                return;
+            }
+            if (tail == seqs.length) {
+                int size = tail - head;
+                long[] grown = size * 2 > seqs.length ? new long[seqs.length * 2] : seqs;
+                System.arraycopy(seqs, head, grown, 0, size);
+                seqs = grown;
+                head = 0;
+                tail = size;
+            }
+            seqs[tail] = seq;
+            tail += 1;
+        }
+
+        void removeFirst(long seq) {
+            if (tail > head && seqs[head] == seq) {
+                head += 1;
+            }
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        int size() {
+            return tail - head;
+        }
+
+        /**
+         * Return sequence number with index, index 0 is the oldest line
+         */
+        long get(int index) {
+            return seqs[head + index];
+        }
+    }
+
+    /**
+     * Prefix trie node, children are found by linear search
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private final Postings postings = new Postings();
+
+        Node child(char c, boolean create) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = c;
+            return children[children.length - 1] = new Node();
+        }
+
+        void removeChild(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    int last = keys.length - 1;
+                    keys[i] = keys[last];
+                    children[i] = children[last];
+                    keys = Arrays.copyOf(keys, last);
+                    children = Arrays.copyOf(children, last);
+                    return;
+                }
+            }
+        }
+
+        void clear() {
+            keys = new char[0];
+            children = new Node[0];
+            postings.head = 0;
+            postings.tail = 0;
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package com.devianta.command;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only history file, one UTF-8 line per record. Lines are collected in
+ * buffer and committed together by background thread. Committer swaps the
+ * filled buffer with spare one and writes it without lock of journal, so
+ * append doesn't wait for disk.
+ */
+final class HistoryJournal implements Closeable {
+    /**
+     * Time between group commits
+     */
+    static final long COMMIT_INTERVAL_MILLIS = 200;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BLOCK_SIZE = 1 << 13;
+
+    private final FileChannel channel;
+    // guarded by this
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    // guarded by writeLock, it is taken before this
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Object writeLock = new Object();
+    private final Thread committer;
+    private boolean closed = false;
+    private volatile IOException failure;
+
+    /**
+     * Open journal for appending, file is created if absent
+     * 
+     * @param file
+     * @throws IOException
+     */
+    HistoryJournal(Path file) throws IOException {
+        super();
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        committer = new Thread(this::commitLoop, "cli-history-journal");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // Write
+
+    /**
+     * Append line to buffer, buffer is committed by background thread. Only
+     * full buffer is written by caller.
+     * 
+     * @param line
+     * @throws IOException
+     */
+    void append(String line) throws IOException {
+        checkFailure();
+        byte[] record = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        if (record.length > BUFFER_SIZE) {
+            synchronized (writeLock) {
+                commit();
+                write(ByteBuffer.wrap(record));
+            }
+            return;
+        }
+        while (true) {
+            synchronized (this) {
+                if (record.length <= buffer.remaining()) {
+                    boolean wasEmpty = buffer.position() == 0;
+                    buffer.put(record);
+                    if (wasEmpty) {
+                        notifyAll();
+                    }
+                    return;
+                }
+            }
+            commit();
+        }
+    }
+
+    /**
+     * Remove all records
+     * 
+     * @throws IOException
+     */
+    void truncate() throws IOException {
+        synchronized (writeLock) {
+            checkFailure();
+            synchronized (this) {
+                buffer.clear();
+            }
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Swap buffer with spare one, write it to file and force it to disk
+     * 
+     * @throws IOException
+     */
+    private void commit() throws IOException {
+        synchronized (writeLock) {
+            ByteBuffer data;
+            synchronized (this) {
+                if (buffer.position() == 0) {
+                    return;
+                }
+                data = buffer;
+                buffer = spare;
+            }
+            data.flip();
+            try {
+                write(data);
+                channel.force(false);
+            } finally {
+                data.clear();
+                spare = data;
+            }
+        }
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    /**
+     * Wait for the first line of group, let more lines join it until
+     * interval is over and commit them together
+     */
+    private void commitLoop() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    while (!closed && buffer.position() == 0) {
+                        wait();
+                    }
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COMMIT_INTERVAL_MILLIS);
+                    long left = deadline - System.nanoTime();
+                    while (!closed && left > 0) {
+                        // appends don't wake committer, other wakeups are spurious
+                        TimeUnit.NANOSECONDS.timedWait(this, left);
+                        left = deadline - System.nanoTime();
+                    }
+                    if (closed) {
+                        // the rest is committed by close
+                        return;
+                    }
+                }
+                commit();
+            }
+        } catch (InterruptedException e) {
+            // journal is closed
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException current = failure;
+        if (current != null) {
+            throw current;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            try {
+                checkFailure();
+                commit();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // Read
+
+    /**
+     * Read last lines of journal. File is read from the end by blocks, so
+     * only the tail of file is parsed.
+     * 
+     * @param file
+     * @param count
+     * @return lines, the oldest first
+     * @throws IOException
+     */
+    static List<String> readTail(Path file, int count) throws IOException {
+        if (!Files.exists(file) || count <= 0) {
+            return Collections.emptyList();
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = in.size();
+            long start = findTailStart(in, end, count);
+            if (start >= end) {
+                return Collections.emptyList();
+            }
+
+            ByteBuffer data = ByteBuffer.allocate((int) (end - start));
+            while (data.hasRemaining() && in.read(data, start + data.position()) >= 0) {
+                // read whole tail
+            }
+            String text = new String(data.array(), 0, data.position(), StandardCharsets.UTF_8);
+
+            List<String> lines = new ArrayList<>(count);
+            int from = 0;
+            for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', from)) {
+                lines.add(text.substring(from, i));
+                from = i + 1;
+            }
+            if (from < text.length()) {
+                // last record without line end
+                lines.add(text.substring(from));
+            }
+            return lines.size() > count ? lines.subList(lines.size() - count, lines.size()) : lines;
+        }
+    }
+
+    /**
+     * Return position of the first byte of last count records
+     */
+    private static long findTailStart(FileChannel in, long end, int count) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        long position = end;
+        int found = 0;
+        // line end of the last record does not start new record
+        boolean skipLast = true;
+
+        while (position > 0) {
+            int length = (int) Math.min(BLOCK_SIZE, position);
+            position -= length;
+            block.clear();
+            block.limit(length);
+            while (block.hasRemaining() && in.read(block, position + block.position()) >= 0) {
+                // fill block
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if (block.get(i) != '\n') {
+                    skipLast = false;
+                    continue;
+                }
+                if (skipLast) {
+                    skipLast = false;
+                    continue;
+                }
+                found += 1;
+                if (found == count) {
+                    return position + i + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+}
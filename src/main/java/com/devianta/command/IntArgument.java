@@ -0,0 +1,125 @@
+package com.devianta.command;
+
+/**
+ * Argument with int value. Value is parsed from characters of line and kept
+ * in Invocation without boxing, use {@link Invocation#getInt(String)}.
+ */
+public class IntArgument extends Argument<Integer> {
+    private IntConverter intConverter = new ConvertToInteger();
+    private IntValidator intValidator = (n) -> true;
+
+    public IntArgument(String description, boolean required) {
+        super(description, required);
+    }
+
+    // chain setters
+
+    @Override
+    public IntArgument setName(String fullName) {
+        super.setName(fullName);
+        return this;
+    }
+
+    @Override
+    public IntArgument setName(String shortName, String fullName) {
+        super.setName(shortName, fullName);
+        return this;
+    }
+
+    /**
+     * Set converter of boxed values, prefer {@link #setIntConverter}
+     */
+    @Override
+    public IntArgument setConverter(Converter<Integer> converter) {
+        super.setConverter(converter);
+        this.intConverter = new IntConverter() {
+            @Override
+            public int convert(CharSequence chars, int from, int to) {
+                return converter.convert(chars.subSequence(from, to).toString());
+            }
+
+            @Override
+            public Validation check(CharSequence chars, int from, int to) {
+                return converter.check(chars.subSequence(from, to).toString());
+            }
+        };
+        return this;
+    }
+
+    /**
+     * Set validator of boxed values, prefer {@link #setIntValidator}
+     */
+    @Override
+    public IntArgument setValidator(Validator<Integer> validator) {
+        super.setValidator(validator);
+        this.intValidator = new IntValidator() {
+            @Override
+            public boolean validate(int value) {
+                return validator.validate(value);
+            }
+
+            @Override
+            public Validation check(int value) {
+                return validator.check(value);
+            }
+        };
+        return this;
+    }
+
+    @Override
+    public IntArgument setFileConverter(FileConverter<Integer> fileConverter) {
+        super.setFileConverter(fileConverter);
+        return this;
+    }
+
+    public IntArgument setIntConverter(IntConverter converter) {
+        this.intConverter = converter;
+        return this;
+    }
+
+    public IntArgument setIntValidator(IntValidator validator) {
+        this.intValidator = validator;
+        return this;
+    }
+
+    // conversion
+
+    @Override
+    protected Validation tryFill(String source, int from, int to, Object[] values, long[] primitives, int slot) {
+        Validation result = intConverter.check(source, from, to);
+        if (!result.isValid()) {
+            return result;
+        }
+        int converted;
+        try {
+            converted = intConverter.convert(source, from, to);
+        } catch (IllegalArgumentException e) {
+            return Validation.fail(BindError.Code.NOT_CONVERTED, e.getMessage());
+        }
+        result = intValidator.check(converted);
+        if (result.isValid()) {
+            primitives[slot] = converted;
+        }
+        return result;
+    }
+
+    @Override
+    protected Validation tryPut(Integer converted, Object[] values, long[] primitives, int slot) {
+        Validation result = intValidator.check(converted);
+        if (result.isValid()) {
+            primitives[slot] = converted;
+        }
+        return result;
+    }
+
+    @Override
+    protected boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    protected Object value(Object[] values, long[] primitives, int slot) {
+        return (int) primitives[slot];
+    }
+
+}
@@ -0,0 +1,312 @@
+package com.devianta.command;
+
+/**
+ * Immutable arguments of one command invocation. Command and Argument objects
+ * are only definitions, values of every run are bound to new Invocation, so
+ * one command can run in several threads at once. Values of command with lazy
+ * conversion are converted on first access, so getters of such values throw
+ * IllegalArgumentException for invalid values.
+ */
+public final class Invocation {
+    private static final LineSource EMPTY = () -> null;
+
+    private final Command command;
+    private final Schema schema;
+    private final Object[] values;
+    private final long[] primitives;
+    private final boolean[] filled;
+    private final Output output;
+    private final LineSource input;
+    private final boolean timed;
+    private final long deadline;
+    private final LazyValues lazy;
+
+    /**
+     * New Invocation, arrays are indexed by argument position in schema
+     *
+     * @param command
+     * @param schema
+     * @param values
+     * @param primitives
+     *            values of primitive arguments or null
+     * @param filled
+     * @param lazy
+     *            raw values converted on first access or null
+     */
+    Invocation(Command command, Schema schema, Object[] values, long[] primitives, boolean[] filled,
+            LazyValues lazy) {
+        this(command, schema, values, primitives, filled, lazy, null, null, false, 0);
+    }
+
+    private Invocation(Command command, Schema schema, Object[] values, long[] primitives, boolean[] filled,
+            LazyValues lazy, Output output, LineSource input, boolean timed, long deadline) {
+        super();
+        this.command = command;
+        this.schema = schema;
+        this.values = values;
+        this.primitives = primitives;
+        this.filled = filled;
+        this.lazy = lazy;
+        this.output = output;
+        this.input = input;
+        this.timed = timed;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Return copy of Invocation with output of the run
+     *
+     * @param output
+     * @return
+     */
+    Invocation withOutput(Output output) {
+        return new Invocation(command, schema, values, primitives, filled, lazy, output, input, timed, deadline);
+    }
+
+    /**
+     * Return copy of Invocation with input lines, for example output of the
+     * previous command of pipeline
+     *
+     * @param input
+     * @return
+     */
+    Invocation withInput(LineSource input) {
+        return new Invocation(command, schema, values, primitives, filled, lazy, output, input, timed, deadline);
+    }
+
+    /**
+     * Return copy of Invocation which should be finished till deadline
+     *
+     * @param deadline
+     *            in {@link System#nanoTime()} scale
+     * @return
+     */
+    Invocation withDeadline(long deadline) {
+        return new Invocation(command, schema, values, primitives, filled, lazy, output, input, true, deadline);
+    }
+
+    // Getters
+
+    /**
+     * Return invoked Command
+     *
+     * @return
+     */
+    public Command getCommand() {
+        return command;
+    }
+
+    /**
+     * Return output of this invocation, text is written when command is
+     * finished
+     *
+     * @return
+     */
+    public Output getOutput() {
+        return output;
+    }
+
+    /**
+     * Return input lines of this invocation. Command in pipeline reads output
+     * of the previous command, other commands get empty input.
+     *
+     * @return
+     */
+    public LineSource getInput() {
+        return input == null ? EMPTY : input;
+    }
+
+    /**
+     * Return true if run of command has deadline. Command is interrupted at
+     * deadline.
+     *
+     * @return
+     */
+    public boolean hasDeadline() {
+        return timed;
+    }
+
+    /**
+     * Return deadline of run in {@link System#nanoTime()} scale
+     *
+     * @return
+     * @throws IllegalStateException
+     *             if run has no deadline
+     */
+    public long getDeadline() throws IllegalStateException {
+        if (!timed) {
+            throw new IllegalStateException("Command \"" + command + "\" has no deadline");
+        }
+        return deadline;
+    }
+
+    /**
+     * Return nanoseconds till deadline, {@link Long#MAX_VALUE} if run has no
+     * deadline. Long operations of command can wait at most this time.
+     *
+     * @return
+     */
+    public long getRemainingNanos() {
+        return timed ? Math.max(0, deadline - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Return true if deadline of run is passed
+     *
+     * @return
+     */
+    public boolean isExpired() {
+        return timed && deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Return true if named argument is set in line
+     *
+     * @param name
+     * @return
+     */
+    public boolean isFilled(String name) {
+        return filled[slot(name)];
+    }
+
+    /**
+     * Return true if free argument with index n is set in line
+     *
+     * @param n
+     * @return
+     */
+    public boolean isFilled(int n) {
+        return filled[schema.freeSlot(n)];
+    }
+
+    /**
+     * Return value of free argument with index n
+     *
+     * @param n
+     * @return
+     */
+    public Object getArg(int n) {
+        return value(schema.freeSlot(n));
+    }
+
+    /**
+     * Return value of named argument
+     *
+     * @param name
+     * @return
+     */
+    public Object getArg(String name) {
+        return value(slot(name));
+    }
+
+    /**
+     * Return value of named IntArgument, 0 if argument is not set
+     *
+     * @param name
+     * @return
+     */
+    public int getInt(String name) {
+        return (int) primitive(slot(name), IntArgument.class);
+    }
+
+    /**
+     * Return value of free IntArgument with index n, 0 if argument is not set
+     *
+     * @param n
+     * @return
+     */
+    public int getInt(int n) {
+        return (int) primitive(schema.freeSlot(n), IntArgument.class);
+    }
+
+    /**
+     * Return value of named LongArgument, 0 if argument is not set
+     *
+     * @param name
+     * @return
+     */
+    public long getLong(String name) {
+        return primitive(slot(name), LongArgument.class);
+    }
+
+    /**
+     * Return value of free LongArgument with index n, 0 if argument is not
+     * set
+     *
+     * @param n
+     * @return
+     */
+    public long getLong(int n) {
+        return primitive(schema.freeSlot(n), LongArgument.class);
+    }
+
+    /**
+     * Return value of named DoubleArgument, 0 if argument is not set
+     *
+     * @param name
+     * @return
+     */
+    public double getDouble(String name) {
+        return Double.longBitsToDouble(primitive(slot(name), DoubleArgument.class));
+    }
+
+    /**
+     * Return value of free DoubleArgument with index n, 0 if argument is not
+     * set
+     *
+     * @param n
+     * @return
+     */
+    public double getDouble(int n) {
+        return Double.longBitsToDouble(primitive(schema.freeSlot(n), DoubleArgument.class));
+    }
+
+    private Object value(int slot) throws IllegalArgumentException {
+        if (!filled[slot]) {
+            return null;
+        }
+        resolve(slot);
+        return schema.argument(slot).value(values, primitives, slot);
+    }
+
+    private long primitive(int slot, Class<?> type) throws IllegalArgumentException {
+        Argument<?> argument = schema.argument(slot);
+        if (!type.isInstance(argument)) {
+            throw new IllegalArgumentException("Argument \"" + argument.getFullName() + "\" of command \"" + command
+                    + "\" is not " + type.getSimpleName());
+        }
+        if (!filled[slot]) {
+            return 0;
+        }
+        resolve(slot);
+        return primitives[slot];
+    }
+
+    private void resolve(int slot) throws IllegalArgumentException {
+        if (lazy != null) {
+            lazy.resolve(command, schema, slot, values, primitives);
+        }
+    }
+
+    private int slot(String name) throws IllegalArgumentException {
+        int slot = schema.slot(name);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Argument \"" + name + "\" not found in command \"" + command + "\"");
+        }
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(command.getName());
+        for (int i = 0; i < values.length; i++) {
+            if (filled[i]) {
+                String raw = (lazy == null) ? null : lazy.raw(i);
+                sb.append(" ").append(schema.argument(i).getFullName()).append("=")
+                        .append(raw == null ? value(i) : raw);
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.devianta.command;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Background command of CLI. Job is stopped by cooperative interruption of
+ * its threads.
+ */
+public final class Job {
+
+    /**
+     * State of job
+     */
+    public enum Status {
+        RUNNING, DONE, FAILED, KILLED
+    }
+
+    private final int id;
+    private final String line;
+    private final long startTime;
+    private final long startNanos;
+    private final Set<Thread> threads = new HashSet<>();
+    private volatile List<CompletableFuture<Void>> stages = Collections.emptyList();
+    private volatile CompletableFuture<Void> future;
+    private volatile long endNanos;
+    private boolean killed = false;
+
+    Job(int id, String line) {
+        super();
+        this.id = id;
+        this.line = line;
+        this.startTime = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    // Lifecycle
+
+    /**
+     * Set futures of commands of job
+     * 
+     * @param stages
+     */
+    void setFutures(List<CompletableFuture<Void>> stages) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(stages.toArray(new CompletableFuture<?>[0]));
+        // status of job is checked after end time is set
+        this.future = all.whenComplete((r, e) -> endNanos = System.nanoTime());
+        this.stages = stages;
+    }
+
+    /**
+     * Register current thread before command run
+     * 
+     * @return false if job is killed and command should not run
+     */
+    synchronized boolean enter() {
+        if (killed) {
+            return false;
+        }
+        threads.add(Thread.currentThread());
+        return true;
+    }
+
+    /**
+     * Unregister current thread after command run
+     */
+    synchronized void exit() {
+        threads.remove(Thread.currentThread());
+        if (killed) {
+            // interrupt of this job should not stop the next task of thread
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Interrupt running commands, commands which are not started yet are
+     * cancelled
+     * 
+     * @return false if job is already finished
+     */
+    synchronized boolean kill() {
+        if (isDone()) {
+            return false;
+        }
+        killed = true;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        if (threads.isEmpty()) {
+            for (CompletableFuture<Void> stage : stages) {
+                stage.cancel(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return true if current thread runs command of this job
+     * 
+     * @return
+     */
+    synchronized boolean isCurrent() {
+        return threads.contains(Thread.currentThread());
+    }
+
+    synchronized boolean isKilled() {
+        return killed;
+    }
+
+    // Getters
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Return command line of job
+     * 
+     * @return
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Return start time in milliseconds since epoch
+     * 
+     * @return
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Return run time of job, time till now if job is running
+     * 
+     * @return
+     */
+    public long getElapsedNanos() {
+        return (isDone() ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    public boolean isDone() {
+        CompletableFuture<Void> current = future;
+        return current != null && current.isDone();
+    }
+
+    public synchronized Status getStatus() {
+        if (!isDone()) {
+            return Status.RUNNING;
+        }
+        if (killed) {
+            return Status.KILLED;
+        }
+        return future.isCompletedExceptionally() ? Status.FAILED : Status.DONE;
+    }
+
+    /**
+     * Return future completed when all commands of job are finished
+     * 
+     * @return
+     */
+    CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%d] %-8s %10.3f s  %s", id, getStatus(), getElapsedNanos() / 1e9, line);
+    }
+
+}
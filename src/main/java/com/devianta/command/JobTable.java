@@ -0,0 +1,112 @@
+package com.devianta.command;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background jobs of CLI ordered by id. Finished jobs are kept until they are
+ * listed or waited once, but not more than {@link #FINISHED_LIMIT} of them,
+ * the oldest are forgotten first. Ids are not reused.
+ */
+final class JobTable {
+    /**
+     * Count of finished jobs kept for report
+     */
+    static final int FINISHED_LIMIT = 100;
+
+    private final Map<Integer, Job> jobs = new LinkedHashMap<>();
+    private int nextId = 1;
+
+    JobTable() {
+        super();
+    }
+
+    /**
+     * Register new job
+     * 
+     * @param line
+     * @return
+     */
+    synchronized Job create(String line) {
+        evict();
+        Job job = new Job(nextId++, line);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * Remove job which was not started
+     * 
+     * @param job
+     */
+    synchronized void remove(Job job) {
+        jobs.remove(job.getId());
+    }
+
+    /**
+     * Forget finished job after its status is shown
+     * 
+     * @param job
+     */
+    synchronized void forget(Job job) {
+        if (job.isDone()) {
+            jobs.remove(job.getId(), job);
+        }
+    }
+
+    /**
+     * Return job with id or null
+     * 
+     * @param id
+     * @return
+     */
+    synchronized Job get(int id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Return all jobs
+     * 
+     * @return
+     */
+    synchronized List<Job> list() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Return all jobs and forget finished ones
+     * 
+     * @return
+     */
+    synchronized List<Job> report() {
+        List<Job> list = new ArrayList<>(jobs.values());
+        for (Iterator<Job> it = jobs.values().iterator(); it.hasNext();) {
+            if (it.next().isDone()) {
+                it.remove();
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Forget the oldest finished jobs over the limit
+     */
+    private void evict() {
+        int finished = 0;
+        for (Job job : jobs.values()) {
+            if (job.isDone()) {
+                finished++;
+            }
+        }
+        for (Iterator<Job> it = jobs.values().iterator(); finished > FINISHED_LIMIT && it.hasNext();) {
+            if (it.next().isDone()) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+
+}
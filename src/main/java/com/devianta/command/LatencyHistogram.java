@@ -0,0 +1,150 @@
+package com.devianta.command;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed memory. Buckets grow by powers of
+ * two, every power of two is split in {@link #SUB_BUCKETS} linear buckets, so
+ * relative error of percentile is below 12.5%. Values above
+ * {@link #MAX_VALUE} nanoseconds are counted in the last bucket.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    /**
+     * Count of buckets in every power of two
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /**
+     * The highest recorded value, about 18 minutes in nanoseconds
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        super();
+    }
+
+    /**
+     * Record value in nanoseconds
+     * 
+     * @param nanos
+     */
+    void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Return copy of current counts
+     * 
+     * @return
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    // Buckets
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exp = index / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exp - SUB_BITS);
+        return (SUB_BUCKETS + index % SUB_BUCKETS) * width + width - 1;
+    }
+
+    /**
+     * Immutable counts of histogram
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            super();
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Return count of recorded values
+         * 
+         * @return
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Return mean value in nanoseconds
+         * 
+         * @return
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Return the highest value in nanoseconds
+         * 
+         * @return
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Return upper bound of bucket with percentile in nanoseconds, for
+         * example 99.9 for p999
+         * 
+         * @param percentile
+         * @return
+         */
+        public long getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile should be from 0 to 100");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max((long) Math.ceil(count * percentile / 100), 1);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.devianta.command;
+
+/**
+ * Placeholder of plugin command in registry. Placeholder has name and
+ * description of descriptor, command is created on first lookup and replaces
+ * placeholder in registry.
+ */
+final class LazyCommand extends Command {
+    private final CommandDescriptor descriptor;
+    private final ClassLoader loader;
+    private Command command;
+
+    LazyCommand(CommandDescriptor descriptor, ClassLoader loader) {
+        super(descriptor.getName(), descriptor.getDescription(), (cli, invocation) -> {
+            throw new IllegalStateException("Command \"" + descriptor.getName() + "\" is not loaded");
+        });
+        this.descriptor = descriptor;
+        this.loader = loader;
+        // visibility is known before command is loaded
+        setFileAccess(descriptor.isFileAccess());
+    }
+
+    /**
+     * Return command, it is created once
+     *
+     * @param registry
+     *            registry where placeholder is replaced
+     * @return
+     * @throws IllegalArgumentException
+     *             if command can't be created
+     */
+    synchronized Command resolve(CommandRegistry registry) throws IllegalArgumentException {
+        if (command == null) {
+            command = descriptor.create(loader);
+            registry.replace(this, command);
+        }
+        return command;
+    }
+
+    synchronized boolean isLoaded() {
+        return command != null;
+    }
+
+}
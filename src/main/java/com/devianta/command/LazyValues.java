@@ -0,0 +1,83 @@
+package com.devianta.command;
+
+/**
+ * Raw argument values of Invocation in lazy mode. Value is converted and
+ * validated on first access, the result is kept in arrays of Invocation and
+ * the error is kept here, so conversion runs once per slot.
+ */
+final class LazyValues {
+    private final String[] sources;
+    private final int[] bounds;
+    private final boolean[] files;
+    private final BindError[] errors;
+
+    LazyValues(int size) {
+        super();
+        this.sources = new String[size];
+        this.bounds = new int[size * 2];
+        this.files = new boolean[size];
+        this.errors = new BindError[size];
+    }
+
+    /**
+     * Keep value of argument slot as region of source
+     *
+     * @param slot
+     * @param source
+     * @param from
+     * @param to
+     * @param file
+     *            true if value is file reference
+     */
+    void put(int slot, String source, int from, int to, boolean file) {
+        sources[slot] = source;
+        bounds[slot * 2] = from;
+        bounds[slot * 2 + 1] = to;
+        files[slot] = file;
+    }
+
+    /**
+     * Convert and validate value of slot if it is not done yet, error of the
+     * first try is thrown again on every access
+     *
+     * @param command
+     * @param schema
+     * @param slot
+     * @param values
+     * @param primitives
+     * @throws IllegalArgumentException
+     *             if value is not converted or not valid
+     */
+    synchronized void resolve(Command command, Schema schema, int slot, Object[] values, long[] primitives)
+            throws IllegalArgumentException {
+        if (errors[slot] != null) {
+            throw new IllegalArgumentException(errors[slot].getMessage());
+        }
+        String source = sources[slot];
+        if (source == null) {
+            return;
+        }
+        int from = bounds[slot * 2];
+        int to = bounds[slot * 2 + 1];
+        Argument<?> argument = schema.argument(slot);
+        long start = System.nanoTime();
+        Validation result = argument.fill(source, from, to, files[slot], values, primitives, slot);
+        command.stats().record(CommandStats.Phase.CONVERT, System.nanoTime() - start);
+        if (!result.isValid()) {
+            errors[slot] = BindError.value(argument, result, source, from, to);
+            throw new IllegalArgumentException(errors[slot].getMessage());
+        }
+        sources[slot] = null;
+    }
+
+    /**
+     * Return raw text of slot or null if value is converted
+     *
+     * @param slot
+     * @return
+     */
+    synchronized String raw(int slot) {
+        return sources[slot] == null ? null : sources[slot].substring(bounds[slot * 2], bounds[slot * 2 + 1]);
+    }
+
+}
@@ -1,119 +1,417 @@
 package com.devianta.command;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.CharBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 class LineArgs {
+    private static final int INITIAL = 4;
+
     /**
      * Command name
      */
     private String command;
+    private String commandSource;
+    private int commandFrom;
+    private int commandTo;
+    /**
+     * Free arguments: source strings and bounds pairs (from, to)
+     */
+    private String[] freeSource = new String[INITIAL];
+    private int[] freeBounds = new int[INITIAL * 2];
+    private boolean[] freeFile = new boolean[INITIAL];
+    private int freeCount;
     /**
-     * Free arguments
+     * Named arguments: source strings pairs (name, value) and bounds quads
+     * (name from, name to, value from, value to)
      */
-    private List<String> free = new ArrayList<>();
+    private String[] namedSource = new String[INITIAL * 2];
+    private int[] namedBounds = new int[INITIAL * 4];
     /**
-     * Named arguments
+     * Values which are file references, region of value starts with
+     * {@link CLIParam#FILE_PREFIX}
      */
-    private Map<String, String> named = new HashMap<>();
+    private boolean[] namedFile = new boolean[INITIAL];
+    private int namedCount;
 
     /**
      * New LineArgs
      */
     public LineArgs() {
         super();
-        command = "";
+        setCommand("");
     }
 
     /**
      * New LineArgs with command name
-     * 
+     *
      * @param command
      */
     public LineArgs(String command) {
         super();
-        this.command = command;
+        setCommand(command);
+    }
+
+    // Reset
+
+    /**
+     * Clear all words, arrays are kept for the next line
+     */
+    public void reset() {
+        Arrays.fill(freeSource, 0, freeCount, null);
+        Arrays.fill(namedSource, 0, namedCount * 2, null);
+        Arrays.fill(freeFile, 0, freeCount, false);
+        Arrays.fill(namedFile, 0, namedCount, false);
+        freeCount = 0;
+        namedCount = 0;
+        setCommand("");
+    }
+
+    /**
+     * Replace content with words of other LineArgs, arrays of this LineArgs
+     * are reused when they are large enough
+     *
+     * @param other
+     */
+    void copyFrom(LineArgs other) {
+        reset();
+        command = other.command;
+        commandSource = other.commandSource;
+        commandFrom = other.commandFrom;
+        commandTo = other.commandTo;
+        if (freeSource.length < other.freeCount) {
+            freeSource = new String[other.freeSource.length];
+            freeBounds = new int[other.freeBounds.length];
+            freeFile = new boolean[other.freeFile.length];
+        }
+        System.arraycopy(other.freeSource, 0, freeSource, 0, other.freeCount);
+        System.arraycopy(other.freeBounds, 0, freeBounds, 0, other.freeCount * 2);
+        System.arraycopy(other.freeFile, 0, freeFile, 0, other.freeCount);
+        freeCount = other.freeCount;
+        if (namedSource.length < other.namedCount * 2) {
+            namedSource = new String[other.namedSource.length];
+            namedBounds = new int[other.namedBounds.length];
+            namedFile = new boolean[other.namedFile.length];
+        }
+        System.arraycopy(other.namedSource, 0, namedSource, 0, other.namedCount * 2);
+        System.arraycopy(other.namedBounds, 0, namedBounds, 0, other.namedCount * 4);
+        System.arraycopy(other.namedFile, 0, namedFile, 0, other.namedCount);
+        namedCount = other.namedCount;
     }
 
     // Setters
 
     /**
      * Set command name
-     * 
+     *
      * @param command
      */
     public void setCommand(String command) {
         this.command = command;
+        this.commandSource = command;
+        this.commandFrom = 0;
+        this.commandTo = command.length();
+    }
+
+    /**
+     * Set command name as region of source
+     *
+     * @param source
+     * @param from
+     * @param to
+     */
+    public void setCommand(String source, int from, int to) {
+        this.command = null;
+        this.commandSource = source;
+        this.commandFrom = from;
+        this.commandTo = to;
     }
 
     /**
      * Put free argument
-     * 
+     *
      * @param freeArg
      */
     public void putFree(String freeArg) {
-        this.free.add(freeArg);
+        putFree(freeArg, 0, freeArg.length());
+    }
+
+    /**
+     * Put free argument as region of source
+     *
+     * @param source
+     * @param from
+     * @param to
+     */
+    public void putFree(String source, int from, int to) {
+        putFree(source, from, to, false);
+    }
+
+    /**
+     * Put free argument as region of source, region of file reference starts
+     * with {@link CLIParam#FILE_PREFIX}
+     *
+     * @param source
+     * @param from
+     * @param to
+     * @param file
+     */
+    void putFree(String source, int from, int to, boolean file) {
+        if (freeCount == freeSource.length) {
+            freeSource = Arrays.copyOf(freeSource, freeCount * 2);
+            freeBounds = Arrays.copyOf(freeBounds, freeCount * 4);
+            freeFile = Arrays.copyOf(freeFile, freeCount * 2);
+        }
+        freeSource[freeCount] = source;
+        freeBounds[freeCount * 2] = from;
+        freeBounds[freeCount * 2 + 1] = to;
+        freeFile[freeCount] = file;
+        freeCount += 1;
     }
 
     /**
      * Put named argument
-     * 
+     *
      * @param arg
      * @param value
      */
     public void putNamed(String arg, String value) {
-        this.named.put(arg, value);
+        putNamed(arg, 0, arg.length(), value, 0, value.length(), false);
+    }
+
+    /**
+     * Put named argument, name and value are regions of source
+     *
+     * @param source
+     * @param nameFrom
+     * @param nameTo
+     * @param valueFrom
+     * @param valueTo
+     */
+    public void putNamed(String source, int nameFrom, int nameTo, int valueFrom, int valueTo) {
+        putNamed(source, nameFrom, nameTo, source, valueFrom, valueTo, false);
+    }
+
+    /**
+     * Put named argument, value of file reference starts with
+     * {@link CLIParam#FILE_PREFIX}
+     *
+     * @param source
+     * @param nameFrom
+     * @param nameTo
+     * @param valueFrom
+     * @param valueTo
+     * @param file
+     */
+    void putNamed(String source, int nameFrom, int nameTo, int valueFrom, int valueTo, boolean file) {
+        putNamed(source, nameFrom, nameTo, source, valueFrom, valueTo, file);
+    }
+
+    private void putNamed(String nameSource, int nameFrom, int nameTo, String valueSource, int valueFrom,
+            int valueTo, boolean file) {
+        int index = indexOf(nameSource, nameFrom, nameTo);
+        if (index < 0) {
+            if (namedCount * 2 == namedSource.length) {
+                namedSource = Arrays.copyOf(namedSource, namedCount * 4);
+                namedBounds = Arrays.copyOf(namedBounds, namedCount * 8);
+                namedFile = Arrays.copyOf(namedFile, namedCount * 2);
+            }
+            index = namedCount;
+            namedCount += 1;
+        }
+        namedSource[index * 2] = nameSource;
+        namedSource[index * 2 + 1] = valueSource;
+        namedBounds[index * 4] = nameFrom;
+        namedBounds[index * 4 + 1] = nameTo;
+        namedBounds[index * 4 + 2] = valueFrom;
+        namedBounds[index * 4 + 3] = valueTo;
+        namedFile[index] = file;
     }
 
     // Getters
 
     /**
      * Get command name
-     * 
+     *
      * @return
      */
     public String getCommand() {
+        if (command == null) {
+            command = commandSource.substring(commandFrom, commandTo);
+        }
         return command;
     }
 
     /**
-     * Get names list of named arguments
-     * 
+     * Get names list of named arguments. List is a view of this LineArgs.
+     *
      * @return
      */
     public List<String> getArgsNames() {
-        List<String> list = new ArrayList<>();
-        list.addAll(named.keySet());
-        return list;
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return getArgName(index).toString();
+            }
+
+            @Override
+            public int size() {
+                return namedCount;
+            }
+        };
+    }
+
+    /**
+     * Get name of named argument use index
+     *
+     * @param index
+     * @return
+     */
+    public CharSequence getArgName(int index) {
+        checkIndex(index, namedCount);
+        return CharBuffer.wrap(namedSource[index * 2], namedBounds[index * 4], namedBounds[index * 4 + 1]);
     }
 
     /**
      * Get value of free argument use index
-     * 
+     *
      * @param index
      * @return
      */
     public String getFreeValue(int index) {
-        return free.get(index);
+        checkIndex(index, freeCount);
+        return freeSource[index].substring(freeBounds[index * 2], freeBounds[index * 2 + 1]);
+    }
+
+    /**
+     * Get view of free argument value use index
+     *
+     * @param index
+     * @return
+     */
+    public CharSequence getFreeView(int index) {
+        checkIndex(index, freeCount);
+        return CharBuffer.wrap(freeSource[index], freeBounds[index * 2], freeBounds[index * 2 + 1]);
+    }
+
+    /**
+     * Get value of named argument use index
+     *
+     * @param index
+     * @return
+     */
+    public String getNamedValue(int index) {
+        checkIndex(index, namedCount);
+        return namedSource[index * 2 + 1].substring(namedBounds[index * 4 + 2], namedBounds[index * 4 + 3]);
+    }
+
+    /**
+     * Get view of named argument value use index
+     *
+     * @param index
+     * @return
+     */
+    public CharSequence getNamedView(int index) {
+        checkIndex(index, namedCount);
+        return CharBuffer.wrap(namedSource[index * 2 + 1], namedBounds[index * 4 + 2], namedBounds[index * 4 + 3]);
     }
 
     /**
      * Get value of named argument argument name
-     * 
+     *
      * @param arg
      * @return
      */
     public String getNamedValue(String arg) {
-        return named.get(arg);
+        int index = indexOf(arg, 0, arg.length());
+        return index < 0 ? null : getNamedValue(index);
+    }
+
+    // Regions
+
+    /**
+     * Get source string of named argument name
+     *
+     * @param index
+     * @return
+     */
+    String getNameSource(int index) {
+        checkIndex(index, namedCount);
+        return namedSource[index * 2];
+    }
+
+    int getNameFrom(int index) {
+        return namedBounds[index * 4];
+    }
+
+    int getNameTo(int index) {
+        return namedBounds[index * 4 + 1];
+    }
+
+    /**
+     * Get source string of free argument value
+     *
+     * @param index
+     * @return
+     */
+    String getFreeSource(int index) {
+        checkIndex(index, freeCount);
+        return freeSource[index];
+    }
+
+    int getFreeFrom(int index) {
+        return freeBounds[index * 2];
+    }
+
+    int getFreeTo(int index) {
+        return freeBounds[index * 2 + 1];
+    }
+
+    /**
+     * Return true if free argument value is file reference
+     *
+     * @param index
+     * @return
+     */
+    boolean isFreeFile(int index) {
+        return freeFile[index];
+    }
+
+    /**
+     * Get source string of named argument value
+     *
+     * @param index
+     * @return
+     */
+    String getNamedSource(int index) {
+        checkIndex(index, namedCount);
+        return namedSource[index * 2 + 1];
+    }
+
+    int getNamedFrom(int index) {
+        return namedBounds[index * 4 + 2];
+    }
+
+    int getNamedTo(int index) {
+        return namedBounds[index * 4 + 3];
+    }
+
+    /**
+     * Return true if named argument value is file reference
+     *
+     * @param index
+     * @return
+     */
+    boolean isNamedFile(int index) {
+        return namedFile[index];
     }
 
     // Counters
 
     /**
      * Get count of arguments
-     * 
+     *
      * @return
      */
     public int getArgCount() {
@@ -122,35 +420,65 @@ class LineArgs {
 
     /**
      * Get count of free arguments
-     * 
+     *
      * @return
      */
     public int getFreeArgCount() {
-        return free.size();
+        return freeCount;
     }
 
     /**
      * Get count of named arguments
-     * 
+     *
      * @return
      */
     public int getNamedArgCount() {
-        return named.size();
+        return namedCount;
     }
 
     /**
-     * Return true if argument available in line
-     * 
+     * Return true if argument available in line. Names are compared with
+     * regions of line, nothing is allocated.
+     *
      * @param argument
      * @return
      */
     public boolean available(Argument<?> argument) {
-        for (String name : getArgsNames()) {
-            if (argument.isEqualsName(name)) {
-                return true;
+        if (argument.isFree()) {
+            return false;
+        }
+        String shortName = argument.getShortName();
+        String fullName = argument.getFullName();
+        return (!shortName.isEmpty() && indexOf(shortName, 0, shortName.length()) >= 0)
+                || (!fullName.isEmpty() && indexOf(fullName, 0, fullName.length()) >= 0);
+    }
+
+    // Search
+
+    /**
+     * Return index of named argument with name equals to region of source
+     *
+     * @param source
+     * @param from
+     * @param to
+     * @return
+     */
+    private int indexOf(String source, int from, int to) {
+        int length = to - from;
+        for (int i = 0; i < namedCount; i++) {
+            int nameFrom = namedBounds[i * 4];
+            if (namedBounds[i * 4 + 1] - nameFrom == length
+                    && namedSource[i * 2].regionMatches(nameFrom, source, from, length)) {
+                return i;
             }
         }
-        return false;
+        return -1;
+    }
+
+    private void checkIndex(int index, int count) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
     }
 
     /**
@@ -160,11 +488,18 @@ class LineArgs {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("LineParameters").append(System.lineSeparator());
-        sb.append("command:         ").append(command).append(System.lineSeparator());
+        sb.append("command:         ").append(getCommand()).append(System.lineSeparator());
         sb.append("arguments count: ").append(getArgCount()).append(System.lineSeparator());
-        sb.append("free arguments:  ").append(getFreeArgCount()).append(" ").append(free)
-                .append(System.lineSeparator());
-        sb.append("named arguments: ").append(getNamedArgCount()).append(" ").append(named);
+        sb.append("free arguments:  ").append(getFreeArgCount()).append(" [");
+        for (int i = 0; i < freeCount; i++) {
+            sb.append(i == 0 ? "" : ", ").append(getFreeView(i));
+        }
+        sb.append("]").append(System.lineSeparator());
+        sb.append("named arguments: ").append(getNamedArgCount()).append(" {");
+        for (int i = 0; i < namedCount; i++) {
+            sb.append(i == 0 ? "" : ", ").append(getArgName(i)).append("=").append(getNamedView(i));
+        }
+        sb.append("}");
         return sb.toString();
     }
 
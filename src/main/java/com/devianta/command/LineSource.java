@@ -0,0 +1,28 @@
+package com.devianta.command;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+public interface LineSource {
+
+    /**
+     * Read next line without line terminator
+     * 
+     * @return line or null at the end of input
+     * @throws IOException
+     */
+    public String readLine() throws IOException;
+
+    /**
+     * Return source of given lines, for tests and embedding
+     * 
+     * @param lines
+     * @return
+     */
+    public static LineSource of(String... lines) {
+        Iterator<String> iterator = Arrays.asList(lines).iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.devianta.command;
+
+/**
+ * Argument with long value. Value is parsed from characters of line and kept
+ * in Invocation without boxing, use {@link Invocation#getLong(String)}.
+ */
+public class LongArgument extends Argument<Long> {
+    private LongConverter longConverter = new ConvertToLong();
+    private LongValidator longValidator = (n) -> true;
+
+    public LongArgument(String description, boolean required) {
+        super(description, required);
+    }
+
+    // chain setters
+
+    @Override
+    public LongArgument setName(String fullName) {
+        super.setName(fullName);
+        return this;
+    }
+
+    @Override
+    public LongArgument setName(String shortName, String fullName) {
+        super.setName(shortName, fullName);
+        return this;
+    }
+
+    /**
+     * Set converter of boxed values, prefer {@link #setLongConverter}
+     */
+    @Override
+    public LongArgument setConverter(Converter<Long> converter) {
+        super.setConverter(converter);
+        this.longConverter = new LongConverter() {
+            @Override
+            public long convert(CharSequence chars, int from, int to) {
+                return converter.convert(chars.subSequence(from, to).toString());
+            }
+
+            @Override
+            public Validation check(CharSequence chars, int from, int to) {
+                return converter.check(chars.subSequence(from, to).toString());
+            }
+        };
+        return this;
+    }
+
+    /**
+     * Set validator of boxed values, prefer {@link #setLongValidator}
+     */
+    @Override
+    public LongArgument setValidator(Validator<Long> validator) {
+        super.setValidator(validator);
+        this.longValidator = new LongValidator() {
+            @Override
+            public boolean validate(long value) {
+                return validator.validate(value);
+            }
+
+            @Override
+            public Validation check(long value) {
+                return validator.check(value);
+            }
+        };
+        return this;
+    }
+
+    @Override
+    public LongArgument setFileConverter(FileConverter<Long> fileConverter) {
+        super.setFileConverter(fileConverter);
+        return this;
+    }
+
+    public LongArgument setLongConverter(LongConverter converter) {
+        this.longConverter = converter;
+        return this;
+    }
+
+    public LongArgument setLongValidator(LongValidator validator) {
+        this.longValidator = validator;
+        return this;
+    }
+
+    // conversion
+
+    @Override
+    protected Validation tryFill(String source, int from, int to, Object[] values, long[] primitives, int slot) {
+        Validation result = longConverter.check(source, from, to);
+        if (!result.isValid()) {
+            return result;
+        }
+        long converted;
+        try {
+            converted = longConverter.convert(source, from, to);
+        } catch (IllegalArgumentException e) {
+            return Validation.fail(BindError.Code.NOT_CONVERTED, e.getMessage());
+        }
+        result = longValidator.check(converted);
+        if (result.isValid()) {
+            primitives[slot] = converted;
+        }
+        return result;
+    }
+
+    @Override
+    protected Validation tryPut(Long converted, Object[] values, long[] primitives, int slot) {
+        Validation result = longValidator.check(converted);
+        if (result.isValid()) {
+            primitives[slot] = converted;
+        }
+        return result;
+    }
+
+    @Override
+    protected boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    protected Object value(Object[] values, long[] primitives, int slot) {
+        return primitives[slot];
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.devianta.command;
+
+public interface LongValidator {
+
+    /**
+     * Implement long argument validator
+     * 
+     * @param value
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public boolean validate(long value) throws IllegalArgumentException;
+
+    /**
+     * Validate without exception. By default result of validate is adapted.
+     * 
+     * @param value
+     * @return
+     */
+    public default Validation check(long value) {
+        try {
+            return validate(value) ? Validation.OK : Validation.FALSE;
+        } catch (IllegalArgumentException e) {
+            return Validation.fail(BindError.Code.NOT_VALID, e.getMessage());
+        }
+    }
+
+}
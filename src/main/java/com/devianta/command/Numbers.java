@@ -0,0 +1,234 @@
+package com.devianta.command;
+
+/**
+ * Parse of numbers from region of characters without creating String. Rules
+ * are the same as in Integer.parseInt, Long.parseLong and Double.parseDouble.
+ */
+final class Numbers {
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    // the highest mantissa which is exact double
+    private static final long MAX_EXACT = 1L << 53;
+
+    private Numbers() {
+        super();
+    }
+
+    /**
+     * Parse decimal int
+     * 
+     * @param s
+     * @param from
+     * @param to
+     * @return
+     * @throws NumberFormatException
+     */
+    static int parseInt(CharSequence s, int from, int to) throws NumberFormatException {
+        return (int) parse(s, from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parse decimal long
+     * 
+     * @param s
+     * @param from
+     * @param to
+     * @return
+     * @throws NumberFormatException
+     */
+    static long parseLong(CharSequence s, int from, int to) throws NumberFormatException {
+        return parse(s, from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Return true if region is accepted by {@link #parseInt}
+     * 
+     * @param s
+     * @param from
+     * @param to
+     * @return
+     */
+    static boolean isInt(CharSequence s, int from, int to) {
+        return check(s, from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return true if region is accepted by {@link #parseLong}
+     * 
+     * @param s
+     * @param from
+     * @param to
+     * @return
+     */
+    static boolean isLong(CharSequence s, int from, int to) {
+        return check(s, from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Return true if region is accepted by {@link #parseDouble}
+     * 
+     * @param s
+     * @param from
+     * @param to
+     * @return
+     */
+    static boolean isDouble(CharSequence s, int from, int to) {
+        return ScanParser.isNumber(s, from, to);
+    }
+
+    private static boolean check(CharSequence s, int from, int to, long min, long max) {
+        if (from >= to) {
+            return false;
+        }
+        int i = from;
+        long limit = -max;
+        char first = s.charAt(i);
+        if (first == '-' || first == '+') {
+            limit = first == '-' ? min : limit;
+            i++;
+            if (i == to) {
+                return false;
+            }
+        }
+        long multmin = limit / 10;
+        long result = 0;
+        while (i < to) {
+            int digit = Character.digit(s.charAt(i++), 10);
+            if (digit < 0 || result < multmin) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        return true;
+    }
+
+    private static long parse(CharSequence s, int from, int to, long min, long max) throws NumberFormatException {
+        if (from >= to) {
+            throw error(s, from, to);
+        }
+        int i = from;
+        boolean negative = false;
+        // result is accumulated negatively as in Long.parseLong
+        long limit = -max;
+        char first = s.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            limit = negative ? min : limit;
+            i++;
+            if (i == to) {
+                throw error(s, from, to);
+            }
+        }
+        long multmin = limit / 10;
+        long result = 0;
+        while (i < to) {
+            int digit = Character.digit(s.charAt(i++), 10);
+            if (digit < 0 || result < multmin) {
+                throw error(s, from, to);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw error(s, from, to);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parse double. Decimal numbers with up to 15 significant digits and small
+     * exponent are converted exactly by one multiplication or division, other
+     * forms are passed to Double.parseDouble.
+     * 
+     * @param s
+     * @param from
+     * @param to
+     * @return
+     * @throws NumberFormatException
+     */
+    static double parseDouble(CharSequence s, int from, int to) throws NumberFormatException {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significant = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean point = false;
+        for (; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa == 0 && c == '0') {
+                    // leading zero
+                } else if (++significant > 15) {
+                    return fallback(s, from, to);
+                } else {
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                exponent -= point ? 1 : 0;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return fallback(s, from, to);
+        }
+
+        if (i < to && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                negativeExp = s.charAt(i) == '-';
+                i++;
+            }
+            int exp = 0;
+            int expDigits = 0;
+            for (; i < to && s.charAt(i) >= '0' && s.charAt(i) <= '9'; i++) {
+                if (++expDigits > 4) {
+                    return fallback(s, from, to);
+                }
+                exp = exp * 10 + (s.charAt(i) - '0');
+            }
+            if (expDigits == 0) {
+                return fallback(s, from, to);
+            }
+            exponent += negativeExp ? -exp : exp;
+        }
+        if (i != to) {
+            // suffix, spaces, hex or special value
+            return fallback(s, from, to);
+        }
+
+        double result;
+        if (mantissa == 0) {
+            result = 0;
+        } else if (mantissa < MAX_EXACT && exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            result = mantissa * POWERS_OF_TEN[exponent];
+        } else if (mantissa < MAX_EXACT && exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            result = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return fallback(s, from, to);
+        }
+        return negative ? -result : result;
+    }
+
+    private static double fallback(CharSequence s, int from, int to) throws NumberFormatException {
+        return Double.parseDouble(s.subSequence(from, to).toString());
+    }
+
+    private static NumberFormatException error(CharSequence s, int from, int to) {
+        return new NumberFormatException("For input string: \"" + s.subSequence(from, to) + "\"");
+    }
+
+}
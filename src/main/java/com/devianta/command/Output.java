@@ -0,0 +1,135 @@
+package com.devianta.command;
+
+import java.io.Flushable;
+import java.util.Formatter;
+
+/**
+ * Buffered output of one command. Text is collected in buffer and written to
+ * sink at once when command is finished or when buffer size reaches
+ * threshold, so output of parallel commands is not mixed line by line.
+ */
+public final class Output implements Appendable, Flushable {
+    private final OutputSink sink;
+    private final int threshold;
+    private final StringBuilder buffer;
+    private Formatter formatter;
+
+    /**
+     * New Output
+     * 
+     * @param sink
+     * @param threshold
+     */
+    public Output(OutputSink sink, int threshold) {
+        super();
+        this.sink = sink;
+        this.threshold = threshold;
+        this.buffer = new StringBuilder(Math.min(threshold, 1024));
+    }
+
+    // Print
+
+    /**
+     * Print string
+     * 
+     * @return
+     */
+    public synchronized Output print(String str) {
+        buffer.append(str);
+        return checkThreshold();
+    }
+
+    /**
+     * Print object
+     * 
+     * @return
+     */
+    public synchronized Output print(Object obj) {
+        buffer.append(obj);
+        return checkThreshold();
+    }
+
+    /**
+     * Print line separator
+     * 
+     * @return
+     */
+    public synchronized Output println() {
+        buffer.append(System.lineSeparator());
+        return checkThreshold();
+    }
+
+    /**
+     * Print string and line separator
+     * 
+     * @return
+     */
+    public synchronized Output println(String str) {
+        buffer.append(str).append(System.lineSeparator());
+        return checkThreshold();
+    }
+
+    /**
+     * Print object and line separator
+     * 
+     * @return
+     */
+    public synchronized Output println(Object obj) {
+        buffer.append(obj).append(System.lineSeparator());
+        return checkThreshold();
+    }
+
+    /**
+     * Print formatted string, see {@link Formatter}
+     * 
+     * @return
+     */
+    public synchronized Output printf(String format, Object... args) {
+        if (formatter == null) {
+            formatter = new Formatter(buffer);
+        }
+        formatter.format(format, args);
+        return checkThreshold();
+    }
+
+    // Appendable
+
+    @Override
+    public synchronized Output append(CharSequence csq) {
+        buffer.append(csq);
+        return checkThreshold();
+    }
+
+    @Override
+    public synchronized Output append(CharSequence csq, int start, int end) {
+        buffer.append(csq, start, end);
+        return checkThreshold();
+    }
+
+    @Override
+    public synchronized Output append(char c) {
+        buffer.append(c);
+        return checkThreshold();
+    }
+
+    // Flush
+
+    /**
+     * Write buffer to sink
+     */
+    @Override
+    public synchronized void flush() {
+        if (buffer.length() > 0) {
+            sink.write(buffer.toString());
+            buffer.setLength(0);
+        }
+    }
+
+    private Output checkThreshold() {
+        if (buffer.length() >= threshold) {
+            flush();
+        }
+        return this;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.devianta.command;
+
+public interface OutputSink {
+
+    /**
+     * Write chunk of text. Chunk is written as a whole, chunks of different
+     * commands are not mixed.
+     * 
+     * @param chunk
+     */
+    public void write(String chunk);
+
+}
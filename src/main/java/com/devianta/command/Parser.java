@@ -25,7 +25,19 @@ class Parser implements ArgParser {
      */
     @Override
     public LineArgs parse(String line) {
-        LineArgs args = new LineArgs();
+        return parse(line, new LineArgs());
+    }
+
+    /**
+     * Parse line into args
+     * 
+     * @param line
+     * @param args
+     * @return
+     */
+    @Override
+    public LineArgs parse(String line, LineArgs args) {
+        args.reset();
         List<String> subSrting = splitLine(line);
 
         if (!subSrting.isEmpty() && (argType(subSrting.get(0)) == ARG)) {
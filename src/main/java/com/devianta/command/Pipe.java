@@ -0,0 +1,129 @@
+package com.devianta.command;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+/**
+ * Bounded queue of lines between two pipeline stages. Writer waits when
+ * queue is full, reader waits when queue is empty, waiting releases the
+ * monitor, so closing never blocks. Output chunks are split into lines, so
+ * one record is one line. End of input is a flag, it doesn't need free place
+ * in queue.
+ */
+final class Pipe implements OutputSink, LineSource {
+    private final int capacity;
+    // guarded by this
+    private final ArrayDeque<String> queue;
+    private final StringBuilder partial = new StringBuilder();
+    private boolean readerClosed = false;
+    private boolean writerClosed = false;
+
+    /**
+     * New Pipe
+     * 
+     * @param capacity
+     *            count of lines in queue
+     */
+    Pipe(int capacity) {
+        super();
+        this.capacity = capacity;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    // Writer side
+
+    /**
+     * Put lines of chunk in queue, the last line without line end waits for
+     * the next chunk
+     * 
+     * @throws PipeClosedException
+     *             if reader or writer is closed or writer is interrupted
+     */
+    @Override
+    public synchronized void write(String chunk) throws PipeClosedException {
+        if (readerClosed || writerClosed) {
+            throw new PipeClosedException();
+        }
+        int from = 0;
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '\n' || c == '\r') {
+                partial.append(chunk, from, i);
+                String line = partial.toString();
+                partial.setLength(0);
+                put(line);
+                if (c == '\r' && i + 1 < chunk.length() && chunk.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                from = i + 1;
+            }
+        }
+        partial.append(chunk, from, chunk.length());
+    }
+
+    /**
+     * Put the last line and end of input. Queue may exceed capacity by the
+     * last line, so writer is closed without waiting for reader.
+     */
+    synchronized void closeWriter() {
+        if (writerClosed) {
+            return;
+        }
+        writerClosed = true;
+        if (partial.length() > 0 && !readerClosed) {
+            queue.add(partial.toString());
+        }
+        partial.setLength(0);
+        notifyAll();
+    }
+
+    private void put(String line) throws PipeClosedException {
+        try {
+            while (queue.size() >= capacity && !readerClosed && !writerClosed) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipeClosedException();
+        }
+        if (readerClosed || writerClosed) {
+            // writer is closed when stage is stopped by timeout
+            throw new PipeClosedException();
+        }
+        if (queue.isEmpty()) {
+            notifyAll();
+        }
+        queue.add(line);
+    }
+
+    // Reader side
+
+    /**
+     * Take next line, wait for writer if queue is empty
+     */
+    @Override
+    public synchronized String readLine() throws InterruptedIOException {
+        try {
+            while (queue.isEmpty() && !writerClosed) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Pipe read interrupted");
+        }
+        if (queue.size() == capacity) {
+            notifyAll();
+        }
+        return queue.poll();
+    }
+
+    /**
+     * Drop unread lines, writer doesn't wait for reader anymore
+     */
+    synchronized void closeReader() {
+        readerClosed = true;
+        queue.clear();
+        notifyAll();
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.devianta.command;
+
+/**
+ * Thrown to command which writes to pipe after the next command of pipeline
+ * is finished. Command is stopped silently, as process by broken pipe.
+ */
+class PipeClosedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    PipeClosedException() {
+        // no stack trace, exception only stops the writer
+        super("Pipe is closed", null, false, false);
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.devianta.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Commands connected by pipes: output lines of every stage are input lines of
+ * the next stage. All stages run at the same time in own threads, so pipes
+ * with bounded queues can't block the whole pipeline.
+ */
+final class Pipeline {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final Executor STAGE_EXECUTOR = (task) -> {
+        Thread thread = new Thread(task, "cli-pipe-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private Pipeline() {
+        super();
+    }
+
+    /**
+     * Return true if stage is failed, stage stopped by closed pipe is not
+     * failed
+     * 
+     * @param e
+     * @return
+     */
+    static boolean isFailure(Throwable e) {
+        Throwable cause = (e instanceof CompletionException || e instanceof ExecutionException) ? e.getCause() : e;
+        return cause != null && !(cause instanceof PipeClosedException);
+    }
+
+    /**
+     * Split line by pipe symbols out of string delimiters
+     * 
+     * @param line
+     * @return stages, one stage if line has no pipes
+     * @throws IllegalArgumentException
+     *             if stage is empty
+     */
+    static List<String> split(String line) throws IllegalArgumentException {
+        if (line.indexOf(CLIParam.PIPE) < 0) {
+            return Collections.singletonList(line);
+        }
+        List<String> stages = new ArrayList<>();
+        boolean quoted = false;
+        int from = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == CLIParam.STR_DELIMITER) {
+                quoted = !quoted;
+            } else if (c == CLIParam.PIPE && !quoted) {
+                stages.add(stage(line, from, i));
+                from = i + 1;
+            }
+        }
+        stages.add(stage(line, from, line.length()));
+        return stages;
+    }
+
+    private static String stage(String line, int from, int to) throws IllegalArgumentException {
+        String stage = line.substring(from, to);
+        if (stage.trim().isEmpty()) {
+            throw new IllegalArgumentException("Empty command in pipeline");
+        }
+        return stage;
+    }
+
+    /**
+     * Start bound stages connected by pipes
+     * 
+     * @param cli
+     * @param stages
+     * @param capacity
+     *            count of lines in every pipe
+     * @param job
+     *            job of pipeline or null
+     * @return future of every stage
+     */
+    static List<CompletableFuture<Void>> start(CLI cli, List<Invocation> stages, int capacity, Job job) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(stages.size());
+        Pipe input = null;
+        for (int i = 0; i < stages.size(); i++) {
+            Pipe output = (i + 1 < stages.size()) ? new Pipe(capacity) : null;
+            Invocation stage = (input == null) ? stages.get(i) : stages.get(i).withInput(input);
+            CompletableFuture<Void> future = cli.start(stage, STAGE_EXECUTOR, output, job);
+
+            Pipe in = input;
+            // not on the thread which completed the stage, it may be the
+            // timer of Watchdog
+            future.whenCompleteAsync((r, e) -> {
+                // end of input for the next stage, the previous stage is not
+                // blocked by unread lines
+                if (output != null) {
+                    output.closeWriter();
+                }
+                if (in != null) {
+                    in.closeReader();
+                }
+            });
+            futures.add(future);
+            input = output;
+        }
+        return futures;
+    }
+
+}
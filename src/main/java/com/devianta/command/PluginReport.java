@@ -0,0 +1,101 @@
+package com.devianta.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report of {@link CLI#loadPlugins()}: providers which were loaded at
+ * startup, commands which are deferred to first invocation and errors of
+ * providers.
+ */
+public final class PluginReport {
+    private final Map<String, List<String>> providers = new LinkedHashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private long nanos;
+
+    PluginReport() {
+        super();
+    }
+
+    void provider(String className) {
+        providers.put(className, new ArrayList<>());
+    }
+
+    void deferred(String className, String command) {
+        providers.get(className).add(command);
+    }
+
+    void error(String message) {
+        errors.add(message);
+    }
+
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    // Getters
+
+    /**
+     * Return classes of providers which were loaded at startup and names of
+     * their commands, no class of command is loaded at startup
+     *
+     * @return
+     */
+    public Map<String, List<String>> getProviders() {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : providers.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Return count of commands deferred to first invocation
+     *
+     * @return
+     */
+    public int getDeferredCount() {
+        int count = 0;
+        for (List<String> commands : providers.values()) {
+            count += commands.size();
+        }
+        return count;
+    }
+
+    /**
+     * Return errors of providers and skipped commands
+     *
+     * @return
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Return time of plugin loading in nanoseconds
+     *
+     * @return
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Plugins: %d providers, %d commands deferred, %d errors, %.3f ms", providers.size(),
+                getDeferredCount(), errors.size(), nanos / 1e6));
+        for (Map.Entry<String, List<String>> entry : providers.entrySet()) {
+            sb.append(System.lineSeparator()).append(" loaded ").append(entry.getKey()).append(": ")
+                    .append(entry.getValue().size()).append(" commands ").append(entry.getValue());
+        }
+        for (String error : errors) {
+            sb.append(System.lineSeparator()).append(" error ").append(error);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,398 @@
+package com.devianta.command;
+
+class ScanParser implements ArgParser {
+    private final boolean fileReferences;
+
+    public ScanParser() {
+        this(false);
+    }
+
+    /**
+     * New parser
+     *
+     * @param fileReferences
+     *            true if unquoted value started with
+     *            {@link CLIParam#FILE_PREFIX} is a file reference
+     */
+    public ScanParser(boolean fileReferences) {
+        super();
+        this.fileReferences = fileReferences;
+    }
+
+    /**
+     * Parse line in one left-to-right scan
+     *
+     * @param line
+     * @return
+     * @throws IllegalArgumentException
+     */
+    @Override
+    public LineArgs parse(String line) throws IllegalArgumentException {
+        return parse(line, new LineArgs());
+    }
+
+    /**
+     * Parse line into args. Words are stored as regions of line, so no
+     * substrings are created.
+     *
+     * @param line
+     * @param args
+     * @return
+     * @throws IllegalArgumentException
+     */
+    @Override
+    public LineArgs parse(String line, LineArgs args) throws IllegalArgumentException {
+        args.reset();
+        new Scan(line, args, fileReferences).run();
+        return args;
+    }
+
+    /**
+     * Return true if character is matched by regex {@code \s}
+     *
+     * @param c
+     * @return
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Return true if region of line is accepted by {@link Double#parseDouble}
+     *
+     * @param line
+     * @param from
+     * @param to
+     * @return
+     */
+    static boolean isNumber(CharSequence line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') {
+            from += 1;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to -= 1;
+        }
+
+        int i = from;
+        if (i < to && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            i += 1;
+        }
+        if (i == to) {
+            return false;
+        }
+
+        char c = line.charAt(i);
+        if (c == 'N') {
+            return to - i == 3 && startsWith(line, "NaN", i);
+        }
+        if (c == 'I') {
+            return to - i == 8 && startsWith(line, "Infinity", i);
+        }
+        if (c == '0' && i + 1 < to && (line.charAt(i + 1) == 'x' || line.charAt(i + 1) == 'X')) {
+            return isHexNumber(line, i + 2, to);
+        }
+
+        int digits = 0;
+        boolean point = false;
+        for (; i < to; i += 1) {
+            c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits += 1;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < to && (line.charAt(i) == 'e' || line.charAt(i) == 'E')) {
+            i = skipExponent(line, i + 1, to);
+            if (i < 0) {
+                return false;
+            }
+        }
+        return isSuffix(line, i, to);
+    }
+
+    private static boolean startsWith(CharSequence line, String prefix, int i) {
+        for (int k = 0; k < prefix.length(); k++) {
+            if (line.charAt(i + k) != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return true if region after "0x" is a hexadecimal floating-point literal
+     *
+     * @param line
+     * @param i
+     * @param to
+     * @return
+     */
+    private static boolean isHexNumber(CharSequence line, int i, int to) {
+        int digits = 0;
+        while (i < to && Character.digit(line.charAt(i), 16) >= 0 && line.charAt(i) < 128) {
+            digits += 1;
+            i += 1;
+        }
+        if (i < to && line.charAt(i) == '.') {
+            i += 1;
+            while (i < to && Character.digit(line.charAt(i), 16) >= 0 && line.charAt(i) < 128) {
+                digits += 1;
+                i += 1;
+            }
+        }
+        if (digits == 0 || i == to || (line.charAt(i) != 'p' && line.charAt(i) != 'P')) {
+            return false;
+        }
+        i = skipExponent(line, i + 1, to);
+        return i >= 0 && isSuffix(line, i, to);
+    }
+
+    /**
+     * Skip signed exponent digits, return -1 if there are no digits
+     *
+     * @param line
+     * @param i
+     * @param to
+     * @return
+     */
+    private static int skipExponent(CharSequence line, int i, int to) {
+        if (i < to && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            i += 1;
+        }
+        int start = i;
+        while (i < to && line.charAt(i) >= '0' && line.charAt(i) <= '9') {
+            i += 1;
+        }
+        return i == start ? -1 : i;
+    }
+
+    /**
+     * Return true if region is empty or contains only float type suffix
+     *
+     * @param line
+     * @param i
+     * @param to
+     * @return
+     */
+    private static boolean isSuffix(CharSequence line, int i, int to) {
+        if (i == to) {
+            return true;
+        }
+        char c = line.charAt(i);
+        return i + 1 == to && (c == 'f' || c == 'F' || c == 'd' || c == 'D');
+    }
+
+    /**
+     * State of one scan. Words follow the rules of {@link Parser}: string
+     * delimiters split the line into quoted and plain segments, plain
+     * segments are trimmed and split by whitespace, empty quoted words are
+     * dropped at the end of line. Plain words can be file references, quoted
+     * words are always literal.
+     */
+    private static final class Scan {
+        private final String line;
+        private final LineArgs args;
+        private final boolean fileReferences;
+        private boolean first = true;
+        private int nameFrom = -1;
+        private int nameTo = -1;
+
+        // plain segment
+        private boolean visible;
+        private int runStart = -1;
+        private int pendFrom = -1;
+        private int pendTo = -1;
+        private int lastVisible = -1;
+        private boolean hiddenRuns;
+
+        // empty quoted words waiting for non-empty tail
+        private int emptyWords;
+        private boolean emptyGap;
+
+        private Scan(String line, LineArgs args, boolean fileReferences) {
+            this.line = line;
+            this.args = args;
+            this.fileReferences = fileReferences;
+        }
+
+        private void run() throws IllegalArgumentException {
+            int length = line.length();
+            int quoteStart = -1;
+
+            for (int i = 0; i < length; i += 1) {
+                char c = line.charAt(i);
+
+                if (quoteStart >= 0) {
+                    if (c != CLIParam.STR_DELIMITER) {
+                        if (emptyWords > 0) {
+                            flushEmptyWords();
+                        }
+                    } else if (i == quoteStart) {
+                        emptyWords += 1;
+                        quoteStart = -1;
+                    } else {
+                        putWord(quoteStart, i, false, false);
+                        quoteStart = -1;
+                    }
+                    continue;
+                }
+
+                if (c == CLIParam.STR_DELIMITER) {
+                    if (emptyGap) {
+                        flushEmptyWords();
+                    }
+                    endSegment();
+                    quoteStart = i + 1;
+                    continue;
+                }
+
+                if (emptyWords > 0) {
+                    if (c > ' ') {
+                        flushEmptyWords();
+                    } else {
+                        emptyGap = true;
+                    }
+                }
+                plain(c, i);
+            }
+
+            if (quoteStart >= 0) {
+                throw new IllegalArgumentException("Unexpected string delimiter");
+            }
+            endSegment();
+            if (nameFrom >= 0) {
+                args.putNamed(line, nameFrom, nameTo, nameTo, nameTo);
+            }
+        }
+
+        /**
+         * Accept character of plain segment. Words are emitted when the next
+         * visible character proves they are not trimmed away.
+         */
+        private void plain(char c, int i) {
+            if (!visible) {
+                if (c <= ' ') {
+                    return;
+                }
+                visible = true;
+                runStart = i;
+                pendFrom = i;
+                pendTo = -1;
+                lastVisible = i;
+                hiddenRuns = false;
+                return;
+            }
+
+            if (isSpace(c)) {
+                if (runStart == pendFrom) {
+                    pendTo = i;
+                } else if (runStart >= 0) {
+                    hiddenRuns = true;
+                }
+                runStart = -1;
+                return;
+            }
+
+            if (runStart < 0) {
+                runStart = i;
+            }
+            if (c > ' ') {
+                if (pendFrom < runStart) {
+                    plainWord(pendFrom, pendTo);
+                    if (hiddenRuns) {
+                        plainWords(pendTo, runStart);
+                        hiddenRuns = false;
+                    }
+                    pendFrom = runStart;
+                }
+                lastVisible = i;
+            }
+        }
+
+        private void endSegment() {
+            if (visible) {
+                plainWord(pendFrom, lastVisible + 1);
+            }
+            visible = false;
+            runStart = -1;
+        }
+
+        private void flushEmptyWords() {
+            for (; emptyWords > 0; emptyWords -= 1) {
+                putWord(0, 0, false, false);
+            }
+            emptyGap = false;
+        }
+
+        /**
+         * Emit every whitespace separated word of region
+         */
+        private void plainWords(int from, int to) {
+            int start = -1;
+            for (int i = from; i < to; i += 1) {
+                if (isSpace(line.charAt(i))) {
+                    if (start >= 0) {
+                        plainWord(start, i);
+                    }
+                    start = -1;
+                } else if (start < 0) {
+                    start = i;
+                }
+            }
+            if (start >= 0) {
+                plainWord(start, to);
+            }
+        }
+
+        private void plainWord(int from, int to) {
+            int prefix = CLIParam.ARG_PREFIX.length();
+            if (line.startsWith(CLIParam.ARG_PREFIX, from) && !isNumber(line, from, to)) {
+                putWord(from + prefix, to, true, false);
+            } else {
+                boolean file = fileReferences && to - from > 1 && line.charAt(from) == CLIParam.FILE_PREFIX;
+                putWord(from, to, false, file);
+            }
+        }
+
+        /**
+         * Put word to LineArgs. First word is command name, argument name takes
+         * next word as value if it is not argument name too. Region of file
+         * reference keeps its prefix.
+         */
+        private void putWord(int from, int to, boolean name, boolean file) {
+            if (first) {
+                first = false;
+                if (!name) {
+                    args.setCommand(line, from, to);
+                }
+                return;
+            }
+
+            if (nameFrom >= 0) {
+                if (name) {
+                    args.putNamed(line, nameFrom, nameTo, nameTo, nameTo);
+                    nameFrom = from;
+                    nameTo = to;
+                } else {
+                    args.putNamed(line, nameFrom, nameTo, from, to, file);
+                    nameFrom = -1;
+                }
+                return;
+            }
+
+            if (name) {
+                nameFrom = from;
+                nameTo = to;
+            } else {
+                args.putFree(line, from, to, file);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.devianta.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable compiled form of Command arguments: hash index over short and full
+ * names, free arguments layout and precomputed bounds
+ */
+final class Schema {
+    private final Argument<?>[] arguments;
+    private final List<Argument<?>> free;
+    private final int[] freeSlots;
+    private final Argument<?>[] required;
+    private final int minFree;
+    private final int maxFree;
+    private final boolean primitives;
+
+    // open addressing index: name -> argument position
+    private final String[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    /**
+     * Compile arguments list
+     *
+     * @param argument
+     */
+    Schema(List<Argument<?>> argument) {
+        super();
+        arguments = argument.toArray(new Argument<?>[argument.size()]);
+
+        List<Argument<?>> freeList = new ArrayList<>();
+        List<Argument<?>> requiredList = new ArrayList<>();
+        int[] freePositions = new int[arguments.length];
+        int min = 0;
+        int names = 0;
+        boolean primitive = false;
+        for (int i = 0; i < arguments.length; i++) {
+            Argument<?> arg = arguments[i];
+            primitive |= arg.isPrimitive();
+            if (arg.isFree()) {
+                freePositions[freeList.size()] = i;
+                freeList.add(arg);
+                min = arg.isRequired() ? min + 1 : min;
+            } else {
+                names += 2;
+                if (arg.isRequired()) {
+                    requiredList.add(arg);
+                }
+            }
+        }
+        free = Collections.unmodifiableList(Arrays.asList(freeList.toArray(new Argument<?>[freeList.size()])));
+        freeSlots = Arrays.copyOf(freePositions, freeList.size());
+        required = requiredList.toArray(new Argument<?>[requiredList.size()]);
+        minFree = min;
+        maxFree = free.size();
+        primitives = primitive;
+
+        int capacity = Integer.highestOneBit(Math.max(names, 1) * 4);
+        keys = new String[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < arguments.length; i++) {
+            index(arguments[i].getShortName(), i);
+            index(arguments[i].getFullName(), i);
+        }
+    }
+
+    private void index(String name, int slot) {
+        if (name.isEmpty()) {
+            return;
+        }
+        int i = spread(name.hashCode()) & mask;
+        while (keys[i] != null) {
+            if (keys[i].equals(name)) {
+                // first argument with this name wins as in linear search
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = name;
+        slots[i] = slot;
+    }
+
+    // Lookup
+
+    /**
+     * Return position of named argument or -1
+     *
+     * @param name
+     * @return
+     */
+    int slot(CharSequence name) {
+        int i = spread(hash(name)) & mask;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (key.contentEquals(name)) {
+                return slots[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Return position of named argument which name is region of source or -1
+     *
+     * @param source
+     * @param from
+     * @param to
+     * @return
+     */
+    int slot(String source, int from, int to) {
+        int h = 0;
+        for (int k = from; k < to; k++) {
+            h = 31 * h + source.charAt(k);
+        }
+        int i = spread(h) & mask;
+        int length = to - from;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (key.length() == length && key.regionMatches(0, source, from, length)) {
+                return slots[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Return named argument or null
+     *
+     * @param name
+     * @return
+     */
+    Argument<?> get(CharSequence name) {
+        int slot = slot(name);
+        return slot < 0 ? null : arguments[slot];
+    }
+
+    /**
+     * Return argument in position
+     *
+     * @param slot
+     * @return
+     */
+    Argument<?> argument(int slot) {
+        return arguments[slot];
+    }
+
+    /**
+     * Return position of free argument with index n
+     *
+     * @param n
+     * @return
+     */
+    int freeSlot(int n) {
+        return freeSlots[n];
+    }
+
+    // Layout
+
+    int size() {
+        return arguments.length;
+    }
+
+    List<Argument<?>> getFree() {
+        return free;
+    }
+
+    Argument<?>[] getRequired() {
+        return required;
+    }
+
+    int getMinFree() {
+        return minFree;
+    }
+
+    int getMaxFree() {
+        return maxFree;
+    }
+
+    /**
+     * Return true if some argument keeps value in primitives array
+     *
+     * @return
+     */
+    boolean hasPrimitives() {
+        return primitives;
+    }
+
+    // Hash
+
+    /**
+     * Same value as {@link String#hashCode()} without creating String
+     */
+    private static int hash(CharSequence name) {
+        if (name instanceof String) {
+            return name.hashCode();
+        }
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        return h;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+}
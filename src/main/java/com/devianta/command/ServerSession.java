@@ -0,0 +1,287 @@
+package com.devianta.command;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * One connection of CLIServer. Channel is read and written by selector thread
+ * of server, lines run one by one in parallel executor of CLI. Command output
+ * is written to channel at once when nothing is queued, otherwise it waits for
+ * selector. Writer waits when client reads slower than commands write.
+ */
+final class ServerSession implements OutputSink {
+    private static final int MAX_QUEUED_LINES = 64;
+
+    private final CLIServer server;
+    private final SocketChannel channel;
+    private final CLI cli;
+    private final int maxLineLength;
+    private final int outputLimit;
+    private SelectionKey key;
+
+    // Input, selector thread only
+    private byte[] line;
+    private int lineLength;
+
+    // Guarded by this
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+    private long pending;
+    private boolean running = false;
+    private boolean inputClosed = false;
+    private boolean closed = false;
+
+    ServerSession(CLIServer server, SocketChannel channel, CLI root, int maxLineLength, int outputLimit,
+            boolean fileAccess) {
+        super();
+        this.server = server;
+        this.channel = channel;
+        this.cli = new CLI(root, this, fileAccess);
+        this.maxLineLength = maxLineLength;
+        this.outputLimit = outputLimit;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    CLI getCLI() {
+        return cli;
+    }
+
+    // Selector thread
+
+    /**
+     * Read available bytes and start complete lines
+     *
+     * @param buffer
+     *            shared buffer of selector thread
+     * @throws IOException
+     */
+    void read(ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        int count = channel.read(buffer);
+        if (count < 0) {
+            if (lineLength > 0) {
+                submit(takeLine());
+            }
+            synchronized (this) {
+                inputClosed = true;
+            }
+            updateInterest();
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                submit(takeLine());
+            } else {
+                append(b);
+            }
+        }
+        updateInterest();
+    }
+
+    /**
+     * Write queued output
+     *
+     * @throws IOException
+     */
+    void flush() throws IOException {
+        synchronized (this) {
+            while (!output.isEmpty()) {
+                ByteBuffer chunk = output.peek();
+                int before = chunk.remaining();
+                channel.write(chunk);
+                pending -= before - chunk.remaining();
+                if (chunk.hasRemaining()) {
+                    break;
+                }
+                output.poll();
+            }
+            notifyAll();
+        }
+        updateInterest();
+    }
+
+    /**
+     * Set interest of key by state of session, finished session is closed
+     * when all output is written
+     */
+    void updateInterest() {
+        int ops;
+        boolean finished;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            boolean readable = !inputClosed && lines.size() < MAX_QUEUED_LINES;
+            ops = (readable ? SelectionKey.OP_READ : 0) | (output.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+            finished = inputClosed && !running && lines.isEmpty() && output.isEmpty();
+        }
+        if (finished) {
+            close();
+        } else if (key.isValid()) {
+            key.interestOps(ops);
+        }
+    }
+
+    /**
+     * Close channel, queued lines and output are dropped
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lines.clear();
+            output.clear();
+            notifyAll();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // channel is closed anyway
+        }
+        server.closed(this);
+    }
+
+    private void append(byte b) throws IOException {
+        if (line == null) {
+            line = new byte[128];
+        } else if (lineLength == line.length) {
+            if (lineLength >= maxLineLength) {
+                write("Line is longer than " + maxLineLength + " bytes" + System.lineSeparator());
+                throw new IOException("Line is too long");
+            }
+            line = Arrays.copyOf(line, Math.min(line.length * 2, maxLineLength));
+        }
+        line[lineLength++] = b;
+    }
+
+    private String takeLine() {
+        int length = lineLength;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        String str = (length == 0) ? "" : new String(line, 0, length, StandardCharsets.UTF_8);
+        lineLength = 0;
+        if (line != null && line.length > 1024) {
+            // idle session keeps small buffer
+            line = null;
+        }
+        return str;
+    }
+
+    // Command threads
+
+    private void submit(String str) {
+        synchronized (this) {
+            if (inputClosed) {
+                // session is quit, the rest of input is dropped
+                return;
+            }
+            lines.add(str);
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        try {
+            cli.getParallelExecutor().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                running = false;
+                lines.clear();
+            }
+            write("Server is busy, line is dropped" + System.lineSeparator());
+            cli.prompt();
+        }
+    }
+
+    /**
+     * Run queued lines, prompt is written when queue is empty
+     */
+    private void drain() {
+        boolean prompted = false;
+        while (true) {
+            String str;
+            boolean wake;
+            synchronized (this) {
+                str = lines.poll();
+                if (str == null && (prompted || closed || inputClosed)) {
+                    running = false;
+                    break;
+                }
+                wake = (lines.size() == MAX_QUEUED_LINES - 1);
+            }
+            if (wake) {
+                server.signal(this);
+            }
+            if (str == null) {
+                cli.prompt();
+                prompted = true;
+                continue;
+            }
+            cli.runLine(str);
+            prompted = false;
+            if (cli.isQuit()) {
+                synchronized (this) {
+                    lines.clear();
+                    inputClosed = true;
+                    running = false;
+                }
+                break;
+            }
+        }
+        server.signal(this);
+    }
+
+    @Override
+    public void write(String chunk) {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(chunk);
+        boolean signal = false;
+        synchronized (this) {
+            // selector thread never waits for itself
+            while (pending > outputLimit && !closed && !server.inSelector()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (closed) {
+                return;
+            }
+            if (output.isEmpty()) {
+                try {
+                    channel.write(bytes);
+                } catch (IOException e) {
+                    // client is gone, session is closed after current line
+                    inputClosed = true;
+                    lines.clear();
+                    bytes.position(bytes.limit());
+                    signal = true;
+                }
+            }
+            if (bytes.hasRemaining()) {
+                output.add(bytes);
+                pending += bytes.remaining();
+                signal = true;
+            }
+        }
+        if (signal) {
+            server.signal(this);
+        }
+    }
+
+}
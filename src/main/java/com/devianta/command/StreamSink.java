@@ -0,0 +1,29 @@
+package com.devianta.command;
+
+import java.io.PrintStream;
+
+/**
+ * OutputSink over PrintStream, every chunk takes stream lock and flushes once
+ */
+public class StreamSink implements OutputSink {
+    private final PrintStream stream;
+
+    /**
+     * New sink over stream
+     * 
+     * @param stream
+     */
+    public StreamSink(PrintStream stream) {
+        super();
+        this.stream = stream;
+    }
+
+    @Override
+    public void write(String chunk) {
+        synchronized (stream) {
+            stream.print(chunk);
+            stream.flush();
+        }
+    }
+
+}
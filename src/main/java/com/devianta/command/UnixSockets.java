@@ -0,0 +1,38 @@
+package com.devianta.command;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Unix domain sockets support. This class is replaced by Java 21 version in
+ * multi-release jar.
+ */
+final class UnixSockets {
+
+    private UnixSockets() {
+        super();
+    }
+
+    /**
+     * Return true if runtime supports Unix domain sockets
+     *
+     * @return
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Open server channel bound to socket file
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     * @throws UnsupportedOperationException
+     */
+    static ServerSocketChannel open(Path path) throws IOException, UnsupportedOperationException {
+        throw new UnsupportedOperationException("Unix domain sockets require Java 21 or later");
+    }
+
+}
@@ -1,17 +1,58 @@
 package com.devianta.command;
 
-public class ValidatePositiveInteger implements Validator<Integer> {
+public class ValidatePositiveInteger implements Validator<Integer>, IntValidator, LongValidator {
+    private static final Validation NEGATIVE = Validation.notValid("positive integer expected");
     
     /**
      * Return true if object is positive integer
      */
     @Override
     public boolean validate(Integer object) throws IllegalArgumentException {
-        if (object < 0) {
-            throw new IllegalArgumentException(
-                    "Value \"" + object + "\" didn't pass the validation, positive integer expected");
+        return validate(object.intValue());
+    }
+
+    /**
+     * Return true if value is positive integer
+     */
+    @Override
+    public boolean validate(int value) throws IllegalArgumentException {
+        return validate((long) value);
+    }
+
+    /**
+     * Return true if value is positive integer
+     */
+    @Override
+    public boolean validate(long value) throws IllegalArgumentException {
+        Validation result = check(value);
+        if (!result.isValid()) {
+            throw new IllegalArgumentException(result.format(Long.toString(value)));
         }
         return true;
     }
 
+    /**
+     * Check object without exception
+     */
+    @Override
+    public Validation check(Integer object) {
+        return check(object.longValue());
+    }
+
+    /**
+     * Check value without exception
+     */
+    @Override
+    public Validation check(int value) {
+        return check((long) value);
+    }
+
+    /**
+     * Check value without exception
+     */
+    @Override
+    public Validation check(long value) {
+        return value < 0 ? NEGATIVE : Validation.OK;
+    }
+
 }
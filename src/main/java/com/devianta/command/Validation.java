@@ -0,0 +1,107 @@
+package com.devianta.command;
+
+/**
+ * Result of conversion or validation check without exception. Failure keeps
+ * only parts of message, value is inserted when message is requested, so
+ * failures can be shared constants.
+ */
+public final class Validation {
+    /**
+     * Value is valid
+     */
+    public static final Validation OK = new Validation(null, null, null);
+    /**
+     * Validator returned false
+     */
+    public static final Validation FALSE = new Validation(BindError.Code.NOT_VALID, "Value \"", "\" validation  failed");
+
+    private final BindError.Code code;
+    private final String prefix;
+    private final String suffix;
+
+    private Validation(BindError.Code code, String prefix, String suffix) {
+        super();
+        this.code = code;
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Value can't be converted, message is "Value "v" did not converted,
+     * expected"
+     * 
+     * @param expected
+     * @return
+     */
+    public static Validation notConverted(String expected) {
+        return new Validation(BindError.Code.NOT_CONVERTED, "Value \"", "\" did not converted, " + expected);
+    }
+
+    /**
+     * Value is not valid, message is "Value "v" didn't pass the validation,
+     * expected"
+     * 
+     * @param expected
+     * @return
+     */
+    public static Validation notValid(String expected) {
+        return new Validation(BindError.Code.NOT_VALID, "Value \"", "\" didn't pass the validation, " + expected);
+    }
+
+    /**
+     * Failure with message around value: prefix + value + suffix
+     * 
+     * @param code
+     * @param prefix
+     * @param suffix
+     * @return
+     */
+    public static Validation fail(BindError.Code code, String prefix, String suffix) {
+        return new Validation(code, prefix, suffix);
+    }
+
+    /**
+     * Failure with complete message, for example message of exception
+     * 
+     * @param code
+     * @param message
+     * @return
+     */
+    public static Validation fail(BindError.Code code, String message) {
+        return new Validation(code, message, null);
+    }
+
+    // Getters
+
+    public boolean isValid() {
+        return code == null;
+    }
+
+    /**
+     * Return code of failure or null if value is valid
+     * 
+     * @return
+     */
+    public BindError.Code getCode() {
+        return code;
+    }
+
+    /**
+     * Return message of failure with value
+     * 
+     * @param value
+     * @return
+     */
+    public String format(CharSequence value) {
+        if (code == null) {
+            return "";
+        }
+        return suffix == null ? prefix : prefix + value + suffix;
+    }
+
+    @Override
+    public String toString() {
+        return code == null ? "OK" : format("...");
+    }
+
+}
@@ -11,4 +11,18 @@ public interface Validator<T> {
      */
     public boolean validate(T object) throws IllegalArgumentException;
 
+    /**
+     * Validate without exception. By default result of validate is adapted.
+     * 
+     * @param object
+     * @return
+     */
+    public default Validation check(T object) {
+        try {
+            return validate(object) ? Validation.OK : Validation.FALSE;
+        } catch (IllegalArgumentException e) {
+            return Validation.fail(BindError.Code.NOT_VALID, e.getMessage());
+        }
+    }
+
 }
@@ -0,0 +1,34 @@
+package com.devianta.command;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual threads support. This class is replaced by Java 21 version in
+ * multi-release jar.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+        super();
+    }
+
+    /**
+     * Return true if runtime supports virtual threads
+     * 
+     * @return
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Create executor which starts new virtual thread for every command
+     * 
+     * @return
+     * @throws UnsupportedOperationException
+     */
+    static ExecutorService newExecutor() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.devianta.command;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deadline of one command run. Future of expired command is completed with
+ * TimeoutException at once and then its thread is interrupted, so caller is
+ * not blocked by command which ignores interruption.
+ */
+final class Watchdog {
+    // threads kept by commands which ignore interruption
+    private static final int MAX_WORKERS = 256;
+    private static final long WORKER_KEEP_ALIVE = 60;
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ScheduledThreadPoolExecutor TIMER = newTimer();
+    private static final ThreadLocal<Watchdog> CURRENT = new ThreadLocal<>();
+    /**
+     * Executor for timed sequential commands which would run in CLI thread.
+     * Idle worker is reused, new worker is started only when the previous
+     * one is still kept by expired command.
+     */
+    static final Executor WORKER = newWorker();
+
+    private final Command command;
+    private final long timeout;
+    private Thread thread;
+    private boolean expired = false;
+
+    private Watchdog(Command command, long timeout) {
+        super();
+        this.command = command;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Run task in executor and expire it after timeout
+     *
+     * @param command
+     * @param task
+     * @param executor
+     * @param timeout
+     *            in nanoseconds
+     * @return future completed with task result or TimeoutException
+     */
+    static CompletableFuture<Void> start(Command command, Runnable task, Executor executor, long timeout) {
+        Watchdog watchdog = new Watchdog(command, timeout);
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            if (!watchdog.enter()) {
+                throw new CancellationException("Command \"" + command + "\" is expired before start");
+            }
+            try {
+                task.run();
+            } finally {
+                watchdog.exit();
+            }
+        }, executor);
+        ScheduledFuture<?> timer = TIMER.schedule(() -> watchdog.expire(future), timeout, TimeUnit.NANOSECONDS);
+        future.whenComplete((r, e) -> timer.cancel(false));
+        return future;
+    }
+
+    /**
+     * Return true if command of current thread is expired, its failure is
+     * counted as timeout
+     *
+     * @return
+     */
+    static boolean isExpired() {
+        Watchdog watchdog = CURRENT.get();
+        if (watchdog == null) {
+            return false;
+        }
+        synchronized (watchdog) {
+            return watchdog.expired;
+        }
+    }
+
+    private synchronized boolean enter() {
+        if (expired) {
+            return false;
+        }
+        thread = Thread.currentThread();
+        CURRENT.set(this);
+        return true;
+    }
+
+    private synchronized void exit() {
+        thread = null;
+        CURRENT.remove();
+        if (expired) {
+            // interrupt of expired command should not stop the next task of
+            // thread
+            Thread.interrupted();
+        }
+    }
+
+    private void expire(CompletableFuture<Void> future) {
+        TimeoutException exception = new TimeoutException(
+                "Command \"" + command + "\" timed out after " + TimeUnit.NANOSECONDS.toMillis(timeout) + " ms");
+        synchronized (this) {
+            // command which handles interruption must not complete it first
+            if (!future.completeExceptionally(exception)) {
+                return;
+            }
+            expired = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+        command.stats().timedOut();
+    }
+
+    private static Executor newWorker() {
+        ThreadPoolExecutor worker = new ThreadPoolExecutor(0, MAX_WORKERS, WORKER_KEEP_ALIVE, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), (task) -> {
+                    Thread thread = new Thread(task, "cli-timed-" + THREADS.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        return worker;
+    }
+
+    private static ScheduledThreadPoolExecutor newTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, (task) -> {
+            Thread thread = new Thread(task, "cli-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.devianta.command.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Method which runs command. Annotation processor
+ * {@code com.devianta.command.processor.CommandProcessor} generates class
+ * {@code <Type>Commands} next to type of method: it builds
+ * {@link com.devianta.command.Command} with arguments of method parameters
+ * and binds values with typed getters of Invocation, no reflection is used at
+ * runtime. Parameters are marked with {@link Option} or {@link Param},
+ * parameters of types CLI, Invocation and Output take objects of current run.
+ * Value returned by method is printed.
+ * <p>
+ * Processor is found in jar of library, add it to annotationProcessorPaths
+ * of maven-compiler-plugin if the paths are set.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface Command {
+
+    /**
+     * Name of command
+     *
+     * @return
+     */
+    String name();
+
+    /**
+     * Description of command for help
+     *
+     * @return
+     */
+    String description() default "";
+
+    /**
+     * Synonyms of command
+     *
+     * @return
+     */
+    String[] synonyms() default {};
+
+    /**
+     * Run command in parallel executor of CLI
+     *
+     * @return
+     */
+    boolean parallel() default false;
+
+}
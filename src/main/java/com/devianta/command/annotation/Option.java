@@ -0,0 +1,48 @@
+package com.devianta.command.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Parameter of {@link Command} method which is named argument. Types are
+ * String, int, long, double, their wrappers, FileValue and boolean. Boolean
+ * parameter is flag without value, it is true when flag is set in line.
+ * Primitive parameter of absent argument is zero, object parameter is null.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.PARAMETER)
+public @interface Option {
+
+    /**
+     * Full name of argument
+     *
+     * @return
+     */
+    String name();
+
+    /**
+     * Short name of argument
+     *
+     * @return
+     */
+    String shortName() default "";
+
+    /**
+     * Description of argument, name of parameter by default
+     *
+     * @return
+     */
+    String description() default "";
+
+    /**
+     * Argument should be set in line
+     *
+     * @return
+     */
+    boolean required() default false;
+
+}
@@ -0,0 +1,33 @@
+package com.devianta.command.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Parameter of {@link Command} method which is free argument. Free arguments
+ * take values of line in order of parameters, optional parameters follow
+ * required ones. Types are the same as of {@link Option} except boolean.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.PARAMETER)
+public @interface Param {
+
+    /**
+     * Description of argument, name of parameter by default
+     *
+     * @return
+     */
+    String description() default "";
+
+    /**
+     * Argument should be set in line
+     *
+     * @return
+     */
+    boolean required() default true;
+
+}
@@ -0,0 +1,308 @@
+package com.devianta.command.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writer of generated commands class. Command factory builds Command with
+ * the same chain setters as hand written code, binder implements CommandRun
+ * and passes typed values of Invocation to the method.
+ */
+final class BinderWriter {
+    private static final String PACKAGE = "com.devianta.command.";
+
+    private final String packageName;
+    private final String className;
+    private final String targetType;
+    private final List<CommandMethod> methods;
+    private final StringBuilder out = new StringBuilder();
+
+    /**
+     * New writer of one generated class
+     *
+     * @param packageName
+     *            empty for default package
+     * @param className
+     * @param targetType
+     *            qualified name of type with command methods
+     * @param methods
+     */
+    BinderWriter(String packageName, String className, String targetType, List<CommandMethod> methods) {
+        super();
+        this.packageName = packageName;
+        this.className = className;
+        this.targetType = targetType;
+        this.methods = methods;
+    }
+
+    /**
+     * Write source of class
+     *
+     * @param writer
+     * @throws IOException
+     */
+    void write(Writer writer) throws IOException {
+        out.setLength(0);
+        if (!packageName.isEmpty()) {
+            line("package " + packageName + ";");
+            line("");
+        }
+        line("/**");
+        line(" * Commands of " + targetType + ", generated by CommandProcessor");
+        line(" */");
+        line("public final class " + className + " {");
+        line("");
+        line("    private " + className + "() {");
+        line("        super();");
+        line("    }");
+        writeRegister();
+        for (CommandMethod method : methods) {
+            writeFactory(method);
+        }
+        for (CommandMethod method : methods) {
+            writeBinder(method);
+        }
+        line("");
+        line("}");
+        writer.write(out.toString());
+    }
+
+    private boolean hasTarget() {
+        for (CommandMethod method : methods) {
+            if (!method.isStatic) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeRegister() {
+        boolean target = hasTarget();
+        line("");
+        line("    /**");
+        line("     * Add commands to CLI");
+        line("     *");
+        line("     * @param cli");
+        if (target) {
+            line("     * @param target");
+        }
+        line("     */");
+        line("    public static void register(" + PACKAGE + "CLI cli" + (target ? ", " + targetType + " target" : "")
+                + ") {");
+        for (CommandMethod method : methods) {
+            StringBuilder call = new StringBuilder("        cli.addCommand(");
+            call.append(method.methodName).append(method.isStatic ? "()" : "(target)");
+            for (String synonym : method.synonyms) {
+                call.append(", ").append(literal(synonym));
+            }
+            line(call.append(");").toString());
+        }
+        line("    }");
+    }
+
+    private void writeFactory(CommandMethod method) {
+        line("");
+        line("    /**");
+        line("     * New command \"" + escape(method.name) + "\"");
+        line("     *");
+        if (!method.isStatic) {
+            line("     * @param target");
+        }
+        line("     * @return");
+        line("     */");
+        line("    public static " + PACKAGE + "Command " + method.methodName + "("
+                + (method.isStatic ? "" : targetType + " target") + ") {");
+        line("        " + PACKAGE + "Command command = new " + PACKAGE + "Command(" + literal(method.name) + ", "
+                + literal(method.description) + ", new " + binderName(method) + "(" + (method.isStatic ? "" : "target")
+                + "));");
+        if (method.parallel) {
+            line("        command.inParallelThread(true);");
+        }
+        if (method.hasFile()) {
+            line("        command.setFileAccess(true);");
+        }
+        for (CommandMethod.Parameter parameter : method.parameters) {
+            String argument = argument(parameter);
+            if (argument != null) {
+                line("        command.addArgument(" + argument + ");");
+            }
+        }
+        line("        return command;");
+        line("    }");
+    }
+
+    private String argument(CommandMethod.Parameter parameter) {
+        CommandMethod.Kind kind = parameter.kind;
+        if (kind != CommandMethod.Kind.FREE && kind != CommandMethod.Kind.NAMED
+                && kind != CommandMethod.Kind.FLAG) {
+            return null;
+        }
+        String type = (kind == CommandMethod.Kind.FLAG) ? CommandMethod.Type.STRING.argumentType()
+                : parameter.type.argumentType();
+        StringBuilder sb = new StringBuilder("new ").append(type).append("(")
+                .append(literal(parameter.description)).append(", ").append(parameter.required).append(")");
+        if (kind != CommandMethod.Kind.FREE) {
+            sb.append(".setName(");
+            if (!parameter.shortName.isEmpty()) {
+                sb.append(literal(parameter.shortName)).append(", ");
+            }
+            sb.append(literal(parameter.fullName)).append(")");
+        }
+        if (kind == CommandMethod.Kind.FLAG) {
+            sb.append(".setValidator(new ").append(PACKAGE).append("EmptyArgumentValidator())");
+        }
+        if (parameter.type == CommandMethod.Type.FILE) {
+            sb.append(".setConverter(s -> new ").append(PACKAGE)
+                    .append("FileValue(java.nio.file.Paths.get(s))).setFileConverter(f -> f)");
+        }
+        return sb.toString();
+    }
+
+    private void writeBinder(CommandMethod method) {
+        String binder = binderName(method);
+        line("");
+        line("    private static final class " + binder + " implements " + PACKAGE + "CommandRun {");
+        if (!method.isStatic) {
+            line("        private final " + targetType + " target;");
+            line("");
+            line("        private " + binder + "(" + targetType + " target) {");
+            line("            super();");
+            line("            this.target = target;");
+            line("        }");
+        } else {
+            line("");
+            line("        private " + binder + "() {");
+            line("            super();");
+            line("        }");
+        }
+        line("");
+        line("        @Override");
+        line("        public void runCommand(" + PACKAGE + "CLI cli, " + PACKAGE + "Invocation invocation) {");
+        StringBuilder call = new StringBuilder();
+        int count = 0;
+        for (CommandMethod.Parameter parameter : method.parameters) {
+            String value = "p" + count;
+            line("            " + declaredType(parameter) + " " + value + " = " + value(parameter) + ";");
+            call.append(count == 0 ? "" : ", ").append(value);
+            count++;
+        }
+        String invoke = (method.isStatic ? targetType : "target") + "." + method.methodName + "(" + call + ")";
+        if (method.returnsValue) {
+            line("            Object result = " + invoke + ";");
+            line("            if (result != null) {");
+            line("                invocation.getOutput().println(result);");
+            line("            }");
+        } else {
+            line("            " + invoke + ";");
+        }
+        line("        }");
+        line("    }");
+    }
+
+    private static String declaredType(CommandMethod.Parameter parameter) {
+        switch (parameter.kind) {
+        case CLI:
+            return PACKAGE + "CLI";
+        case INVOCATION:
+            return PACKAGE + "Invocation";
+        case OUTPUT:
+            return PACKAGE + "Output";
+        case FLAG:
+            return "boolean";
+        default:
+            return parameter.type.javaName();
+        }
+    }
+
+    /**
+     * Return expression of parameter value
+     */
+    private static String value(CommandMethod.Parameter parameter) {
+        switch (parameter.kind) {
+        case CLI:
+            return "cli";
+        case INVOCATION:
+            return "invocation";
+        case OUTPUT:
+            return "invocation.getOutput()";
+        case FLAG:
+            return "invocation.isFilled(" + key(parameter) + ")";
+        default:
+            break;
+        }
+        String key = key(parameter);
+        CommandMethod.Type type = parameter.type;
+        if (type.getter() == null) {
+            return "(" + type.javaName() + ") invocation.getArg(" + key + ")";
+        }
+        String typed = "invocation." + type.getter() + "(" + key + ")";
+        if (type.isBoxed()) {
+            return "invocation.isFilled(" + key + ") ? " + type.javaName() + ".valueOf(" + typed + ") : null";
+        }
+        return typed;
+    }
+
+    private static String key(CommandMethod.Parameter parameter) {
+        return parameter.kind == CommandMethod.Kind.FREE ? Integer.toString(parameter.index)
+                : literal(parameter.fullName);
+    }
+
+    /**
+     * Return name of binder class, it is unique in generated class if method
+     * names differ after capitalization
+     *
+     * @param method
+     * @return
+     */
+    static String binderName(CommandMethod method) {
+        return Character.toUpperCase(method.methodName.charAt(0)) + method.methodName.substring(1) + "Run";
+    }
+
+    private void line(String str) {
+        out.append(str).append('\n');
+    }
+
+    /**
+     * Return Java literal of string
+     *
+     * @param str
+     * @return
+     */
+    static String literal(String str) {
+        return "\"" + escape(str) + "\"";
+    }
+
+    private static String escape(String str) {
+        StringBuilder sb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < ' ' || c > '~') {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+                break;
+            }
+        }
+        return sb.toString();
+    }
+
+}
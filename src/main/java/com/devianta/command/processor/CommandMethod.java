@@ -0,0 +1,139 @@
+package com.devianta.command.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command method checked by processor: everything the writer needs to
+ * generate command factory and binder
+ */
+final class CommandMethod {
+
+    /**
+     * Kind of method parameter
+     */
+    enum Kind {
+        /** CLI which runs command */
+        CLI,
+        /** Invocation of current run */
+        INVOCATION,
+        /** Output of current run */
+        OUTPUT,
+        /** Free argument */
+        FREE,
+        /** Named argument with value */
+        NAMED,
+        /** Named argument without value */
+        FLAG
+    }
+
+    /**
+     * Java type of argument value
+     */
+    enum Type {
+        STRING("String", "com.devianta.command.Argument<String>", null),
+        INT("int", "com.devianta.command.IntArgument", "getInt"),
+        LONG("long", "com.devianta.command.LongArgument", "getLong"),
+        DOUBLE("double", "com.devianta.command.DoubleArgument", "getDouble"),
+        BOXED_INT("Integer", "com.devianta.command.IntArgument", "getInt"),
+        BOXED_LONG("Long", "com.devianta.command.LongArgument", "getLong"),
+        BOXED_DOUBLE("Double", "com.devianta.command.DoubleArgument", "getDouble"),
+        FILE("com.devianta.command.FileValue", "com.devianta.command.Argument<com.devianta.command.FileValue>",
+                null),
+        BOOLEAN("boolean", null, null),
+        NONE(null, null, null);
+
+        private final String javaName;
+        private final String argumentType;
+        private final String getter;
+
+        private Type(String javaName, String argumentType, String getter) {
+            this.javaName = javaName;
+            this.argumentType = argumentType;
+            this.getter = getter;
+        }
+
+        String javaName() {
+            return javaName;
+        }
+
+        String argumentType() {
+            return argumentType;
+        }
+
+        /**
+         * Return typed getter of Invocation or null if value is taken with
+         * getArg and cast
+         *
+         * @return
+         */
+        String getter() {
+            return getter;
+        }
+
+        boolean isBoxed() {
+            return this == BOXED_INT || this == BOXED_LONG || this == BOXED_DOUBLE;
+        }
+    }
+
+    /**
+     * Parameter of command method
+     */
+    static final class Parameter {
+        final Kind kind;
+        final Type type;
+        final String description;
+        final boolean required;
+        final String shortName;
+        final String fullName;
+        final int index;
+
+        Parameter(Kind kind, Type type, String description, boolean required, String shortName, String fullName,
+                int index) {
+            super();
+            this.kind = kind;
+            this.type = type;
+            this.description = description;
+            this.required = required;
+            this.shortName = shortName;
+            this.fullName = fullName;
+            this.index = index;
+        }
+    }
+
+    final String name;
+    final String description;
+    final String[] synonyms;
+    final boolean parallel;
+    final String methodName;
+    final boolean isStatic;
+    final boolean returnsValue;
+    final List<Parameter> parameters = new ArrayList<>();
+
+    CommandMethod(String name, String description, String[] synonyms, boolean parallel, String methodName,
+            boolean isStatic, boolean returnsValue) {
+        super();
+        this.name = name;
+        this.description = description;
+        this.synonyms = synonyms;
+        this.parallel = parallel;
+        this.methodName = methodName;
+        this.isStatic = isStatic;
+        this.returnsValue = returnsValue;
+    }
+
+    /**
+     * Return true if method takes FileValue, such command reads files of host
+     *
+     * @return
+     */
+    boolean hasFile() {
+        for (Parameter parameter : parameters) {
+            if (parameter.type == Type.FILE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,327 @@
+package com.devianta.command.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.devianta.command.annotation.Command;
+import com.devianta.command.annotation.Option;
+import com.devianta.command.annotation.Param;
+
+/**
+ * Annotation processor of {@link Command} methods. For every type with
+ * command methods class {@code <Type>Commands} is generated in the same
+ * package, nested type {@code Outer.Inner} gives
+ * {@code Outer_InnerCommands}. Generated class has factory of Command for
+ * every method and {@code register(CLI)} or {@code register(CLI, target)}
+ * which adds all of them. Errors of methods are reported by compiler.
+ */
+public class CommandProcessor extends AbstractProcessor {
+    private static final String SUFFIX = "Commands";
+
+    public CommandProcessor() {
+        super();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(
+                Arrays.asList(Command.class.getName(), Option.class.getName(), Param.class.getName()));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        checkParameters(round, Option.class);
+        checkParameters(round, Param.class);
+
+        Map<TypeElement, List<ExecutableElement>> types = new LinkedHashMap<>();
+        for (Element element : round.getElementsAnnotatedWith(Command.class)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element.getEnclosingElement();
+            types.computeIfAbsent(type, (t) -> new ArrayList<>()).add((ExecutableElement) element);
+        }
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : types.entrySet()) {
+            generate(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Report parameters annotated out of command method
+     */
+    private void checkParameters(RoundEnvironment round, Class<? extends java.lang.annotation.Annotation> type) {
+        for (Element element : round.getElementsAnnotatedWith(type)) {
+            Element method = element.getEnclosingElement();
+            if (method == null || method.getAnnotation(Command.class) == null) {
+                error(element, "@" + type.getSimpleName() + " parameter should belong to @Command method");
+            }
+        }
+    }
+
+    private void generate(TypeElement type, List<ExecutableElement> elements) {
+        boolean valid = checkType(type);
+        List<CommandMethod> methods = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        Set<String> binders = new HashSet<>();
+        for (ExecutableElement element : elements) {
+            CommandMethod method = toCommand(element);
+            if (method == null) {
+                valid = false;
+            } else if (!names.add(method.methodName)) {
+                error(element, "Command methods of one type should have different names");
+                valid = false;
+            } else if (!binders.add(BinderWriter.binderName(method))) {
+                error(element, "Command methods of one type should differ not only in case of first letter");
+                valid = false;
+            } else {
+                methods.add(method);
+            }
+        }
+        if (!valid) {
+            return;
+        }
+
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String className = nestedName(type) + SUFFIX;
+        String qualified = packageName.isEmpty() ? className : packageName + "." + className;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualified, type);
+            try (Writer writer = file.openWriter()) {
+                new BinderWriter(packageName, className, type.getQualifiedName().toString(), methods)
+                        .write(writer);
+            }
+        } catch (IOException e) {
+            error(type, "Commands class can't be written: " + e.getMessage());
+        }
+    }
+
+    private boolean checkType(TypeElement type) {
+        boolean valid = true;
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            NestingKind nesting = ((TypeElement) e).getNestingKind();
+            if (nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) {
+                error(type, "Type with @Command methods should not be local");
+                return false;
+            }
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "Type with @Command methods should not be private");
+                valid = false;
+            }
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "Type with @Command methods should not be generic");
+            valid = false;
+        }
+        return valid;
+    }
+
+    /**
+     * Check method and its parameters, return null if errors are reported
+     */
+    private CommandMethod toCommand(ExecutableElement element) {
+        Command annotation = element.getAnnotation(Command.class);
+        boolean valid = true;
+        if (annotation.name().isEmpty()) {
+            error(element, "Command name should not be empty");
+            valid = false;
+        }
+        if (element.getModifiers().contains(Modifier.PRIVATE)) {
+            error(element, "@Command method should not be private");
+            valid = false;
+        }
+        if (!element.getTypeParameters().isEmpty()) {
+            error(element, "@Command method should not be generic");
+            valid = false;
+        }
+        for (TypeMirror thrown : element.getThrownTypes()) {
+            if (!isUnchecked(thrown)) {
+                error(element, "@Command method should not throw checked exception " + thrown);
+                valid = false;
+            }
+        }
+
+        CommandMethod method = new CommandMethod(annotation.name(), annotation.description(),
+                annotation.synonyms(), annotation.parallel(), element.getSimpleName().toString(),
+                element.getModifiers().contains(Modifier.STATIC), element.getReturnType().getKind() != TypeKind.VOID);
+        Set<String> names = new HashSet<>();
+        boolean optional = false;
+        int free = 0;
+        for (VariableElement variable : element.getParameters()) {
+            CommandMethod.Parameter parameter = toParameter(variable, free);
+            if (parameter == null) {
+                valid = false;
+                continue;
+            }
+            if (parameter.kind == CommandMethod.Kind.FREE) {
+                free++;
+                if (parameter.required && optional) {
+                    error(variable, "Required @Param should not follow optional one");
+                    valid = false;
+                }
+                optional |= !parameter.required;
+            }
+            if (parameter.kind == CommandMethod.Kind.NAMED || parameter.kind == CommandMethod.Kind.FLAG) {
+                if (!names.add(parameter.fullName)
+                        || (!parameter.shortName.isEmpty() && !names.add(parameter.shortName))) {
+                    error(variable, "Option name is used by other option of command");
+                    valid = false;
+                }
+            }
+            method.parameters.add(parameter);
+        }
+        return valid ? method : null;
+    }
+
+    private CommandMethod.Parameter toParameter(VariableElement variable, int free) {
+        Option option = variable.getAnnotation(Option.class);
+        Param param = variable.getAnnotation(Param.class);
+        CommandMethod.Type type = typeOf(variable.asType());
+        String name = variable.getSimpleName().toString();
+
+        if (option != null && param != null) {
+            error(variable, "Parameter should not be both @Option and @Param");
+            return null;
+        }
+        if (option == null && param == null) {
+            CommandMethod.Kind kind = contextOf(variable.asType());
+            if (kind == null) {
+                error(variable, "Parameter should be @Option, @Param, CLI, Invocation or Output");
+                return null;
+            }
+            return new CommandMethod.Parameter(kind, CommandMethod.Type.NONE, "", false, "", "", -1);
+        }
+        if (type == CommandMethod.Type.NONE) {
+            error(variable, "Unsupported type of argument " + variable.asType());
+            return null;
+        }
+        if (param != null) {
+            if (type == CommandMethod.Type.BOOLEAN) {
+                error(variable, "@Param should not be boolean, use @Option flag");
+                return null;
+            }
+            return new CommandMethod.Parameter(CommandMethod.Kind.FREE, type, describe(param.description(), name),
+                    param.required(), "", "", free);
+        }
+        if (option.name().isEmpty()) {
+            error(variable, "Option name should not be empty");
+            return null;
+        }
+        if (type == CommandMethod.Type.BOOLEAN) {
+            if (option.required()) {
+                error(variable, "Boolean @Option should not be required");
+                return null;
+            }
+            return new CommandMethod.Parameter(CommandMethod.Kind.FLAG, type, describe(option.description(), name),
+                    false, option.shortName(), option.name(), -1);
+        }
+        return new CommandMethod.Parameter(CommandMethod.Kind.NAMED, type, describe(option.description(), name),
+                option.required(), option.shortName(), option.name(), -1);
+    }
+
+    private static String describe(String description, String name) {
+        return description.isEmpty() ? name : description;
+    }
+
+    private static CommandMethod.Type typeOf(TypeMirror type) {
+        switch (type.getKind()) {
+        case INT:
+            return CommandMethod.Type.INT;
+        case LONG:
+            return CommandMethod.Type.LONG;
+        case DOUBLE:
+            return CommandMethod.Type.DOUBLE;
+        case BOOLEAN:
+            return CommandMethod.Type.BOOLEAN;
+        case DECLARED:
+            break;
+        default:
+            return CommandMethod.Type.NONE;
+        }
+        switch (type.toString()) {
+        case "java.lang.String":
+            return CommandMethod.Type.STRING;
+        case "java.lang.Integer":
+            return CommandMethod.Type.BOXED_INT;
+        case "java.lang.Long":
+            return CommandMethod.Type.BOXED_LONG;
+        case "java.lang.Double":
+            return CommandMethod.Type.BOXED_DOUBLE;
+        case "com.devianta.command.FileValue":
+            return CommandMethod.Type.FILE;
+        default:
+            return CommandMethod.Type.NONE;
+        }
+    }
+
+    private static CommandMethod.Kind contextOf(TypeMirror type) {
+        switch (type.toString()) {
+        case "com.devianta.command.CLI":
+            return CommandMethod.Kind.CLI;
+        case "com.devianta.command.Invocation":
+            return CommandMethod.Kind.INVOCATION;
+        case "com.devianta.command.Output":
+            return CommandMethod.Kind.OUTPUT;
+        default:
+            return null;
+        }
+    }
+
+    private boolean isUnchecked(TypeMirror thrown) {
+        TypeMirror runtime = processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+        TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+        return processingEnv.getTypeUtils().isAssignable(thrown, runtime)
+                || processingEnv.getTypeUtils().isAssignable(thrown, error);
+    }
+
+    private static PackageElement packageOf(Element element) {
+        while (element.getKind() != ElementKind.PACKAGE) {
+            element = element.getEnclosingElement();
+        }
+        return (PackageElement) element;
+    }
+
+    /**
+     * Return simple names of type and its enclosing types joined by "_"
+     */
+    private static String nestedName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            name = e.getSimpleName() + "_" + name;
+        }
+        return name;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.devianta.command;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Unix domain sockets support for Java 21 and later
+ */
+final class UnixSockets {
+
+    private UnixSockets() {
+        super();
+    }
+
+    /**
+     * Return true if runtime supports Unix domain sockets
+     *
+     * @return
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Open server channel bound to socket file
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    static ServerSocketChannel open(Path path) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.bind(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+}
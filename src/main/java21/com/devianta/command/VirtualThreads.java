@@ -0,0 +1,33 @@
+package com.devianta.command;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads support for Java 21 and later
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+        super();
+    }
+
+    /**
+     * Return true if runtime supports virtual threads
+     * 
+     * @return
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Create executor which starts new virtual thread for every command
+     * 
+     * @return
+     */
+    static ExecutorService newExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cli-command-", 1).factory());
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.devianta.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Loopback sessions of CLIServer
+ */
+public class CLIServerTest {
+    private static final String PROMPT = "srv> ";
+    private static final int TIMEOUT = 5000;
+
+    private CLIServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        CLI cli = new CLI().setName("srv");
+        Command echo = new Command("echo", "Print argument",
+                (c, invocation) -> invocation.getOutput().println("echo " + invocation.getArg(0)));
+        echo.addArgument(new Argument<String>("text", true));
+        cli.addCommand(echo);
+        server = new CLIServer(cli);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void runsCommandsOfClient() throws IOException {
+        start();
+        try (Socket socket = connect()) {
+            assertEquals("echo hello\n" + PROMPT, talk(socket, "echo hello\n"));
+            assertTrue(talk(socket, "unknown\n").startsWith("Command \"unknown\" not found"));
+            assertEquals("echo after\n" + PROMPT, talk(socket, "echo after\n"));
+        }
+    }
+
+    @Test
+    public void keepsHistoryOfSession() throws IOException {
+        start();
+        try (Socket first = connect(); Socket second = connect()) {
+            talk(first, "echo one\n");
+            assertTrue(talk(first, "history\n").contains("echo one"));
+            assertFalse(talk(second, "history\n").contains("echo one"));
+        }
+    }
+
+    @Test
+    public void hidesFileCommands() throws IOException {
+        start();
+        try (Socket socket = connect()) {
+            assertTrue(talk(socket, "script /etc/hostname\n").startsWith("Command \"script\" not found"));
+            assertFalse(talk(socket, "help\n").contains("script"));
+        }
+    }
+
+    @Test
+    public void allowsFileCommands() throws IOException {
+        server.setFileAccess(true);
+        start();
+        try (Socket socket = connect()) {
+            assertTrue(talk(socket, "help\n").contains("script"));
+        }
+    }
+
+    @Test
+    public void countsSessions() throws IOException, InterruptedException {
+        start();
+        Socket socket = connect();
+        assertEquals(1, server.getSessionCount());
+        socket.close();
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (server.getSessionCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getSessionCount());
+    }
+
+    private void start() throws IOException {
+        server.bind(new InetSocketAddress("127.0.0.1", 0));
+        server.running();
+    }
+
+    /**
+     * Connect and read greeting prompt
+     */
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.connect(server.getLocalAddress(), TIMEOUT);
+        socket.setSoTimeout(TIMEOUT);
+        assertEquals(PROMPT, readPrompt(socket));
+        return socket;
+    }
+
+    /**
+     * Send line and return output up to the next prompt
+     */
+    private static String talk(Socket socket, String line) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        return readPrompt(socket);
+    }
+
+    private static String readPrompt(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        StringBuilder sb = new StringBuilder();
+        byte[] buffer = new byte[4096];
+        while (!endsWithPrompt(sb)) {
+            int count;
+            try {
+                count = in.read(buffer);
+            } catch (SocketTimeoutException e) {
+                throw new AssertionError("No prompt after [" + sb + "]");
+            }
+            if (count < 0) {
+                throw new AssertionError("Connection closed after [" + sb + "]");
+            }
+            sb.append(new String(buffer, 0, count, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    private static boolean endsWithPrompt(StringBuilder sb) {
+        return sb.length() >= PROMPT.length() && sb.substring(sb.length() - PROMPT.length()).equals(PROMPT);
+    }
+
+}
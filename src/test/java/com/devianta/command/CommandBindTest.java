@@ -0,0 +1,177 @@
+package com.devianta.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Binding of line arguments to Invocation: collected errors, eager and lazy
+ * conversion, primitive slots
+ */
+public class CommandBindTest {
+    private final ScanParser parser = new ScanParser();
+
+    @Test
+    public void allLineErrorsAreCollected() {
+        Command command = new Command("cmd", "Test", (cli, invocation) -> {
+        });
+        command.addArgument(new Argument<String>("text", true));
+        command.addArgument(new IntArgument("count", true).setName("c", "count"));
+
+        BindResult result = command.tryBind(parser.parse("cmd -x 1 -y 2"));
+        assertFalse(result.isOk());
+        assertNull(result.getInvocation());
+        assertEquals(Arrays.asList(BindError.Code.ARGUMENTS_AMOUNT, BindError.Code.REQUIRED_MISSING,
+                BindError.Code.UNEXPECTED_ARGUMENT, BindError.Code.UNEXPECTED_ARGUMENT), codes(result));
+        assertEquals("x", result.getErrors().get(2).getValue());
+        assertEquals("y", result.getErrors().get(3).getValue());
+        assertEquals(String.join(System.lineSeparator(), "Unsupported arguments amount",
+                "Required argument \"" + command.getArgument("count") + "\" hasn't finded",
+                "Unexpected argument \"x\"", "Unexpected argument \"y\""), result.getMessage());
+
+        try {
+            command.bind(parser.parse("cmd -x 1 -y 2"));
+            throw new AssertionError("Bound");
+        } catch (IllegalArgumentException e) {
+            assertEquals(result.getMessage(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void allValueErrorsAreCollected() {
+        Command command = new Command("cmd", "Test", (cli, invocation) -> {
+        });
+        command.addArgument(new IntArgument("first", true));
+        command.addArgument(new LongArgument("size", false).setName("s", "size"));
+        command.addArgument(new DoubleArgument("rate", false).setName("r", "rate"));
+
+        BindResult result = command.tryBind(parser.parse("cmd one -s two -r 0.5"));
+        assertEquals(Arrays.asList(BindError.Code.NOT_CONVERTED, BindError.Code.NOT_CONVERTED), codes(result));
+        assertEquals("one", result.getErrors().get(0).getValue());
+        assertEquals(command.getArgument("size"), result.getErrors().get(1).getArgument());
+        assertTrue(command.tryBind(parser.parse("cmd 1 -s 2 -r 0.5")).isOk());
+    }
+
+    @Test
+    public void eagerConversionFailsBinding() {
+        AtomicInteger calls = new AtomicInteger();
+        Command command = counting(calls);
+
+        assertFalse(command.tryBind(parser.parse("cmd bad")).isOk());
+        assertEquals(1, calls.get());
+        Invocation invocation = command.bind(parser.parse("cmd 7"));
+        assertEquals(2, calls.get());
+        assertEquals(7, invocation.getInt(0));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void lazyConversionFailsOnAccess() {
+        AtomicInteger calls = new AtomicInteger();
+        Command command = counting(calls).convertLazily(true);
+
+        BindResult result = command.tryBind(parser.parse("cmd bad"));
+        assertTrue(result.isOk());
+        assertEquals(0, calls.get());
+        String message = null;
+        for (int i = 0; i < 3; i++) {
+            try {
+                result.getInvocation().getArg(0);
+                throw new AssertionError("Converted");
+            } catch (IllegalArgumentException e) {
+                assertTrue(message == null || message.equals(e.getMessage()));
+                message = e.getMessage();
+            }
+        }
+        // failure is kept for the slot
+        assertEquals(1, calls.get());
+        assertEquals(message, eagerMessage("cmd bad"));
+
+        Invocation invocation = command.bind(parser.parse("cmd 7"));
+        assertEquals(1, calls.get());
+        assertEquals(7, invocation.getInt(0));
+        assertEquals(Integer.valueOf(7), invocation.getArg(0));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void lineErrorsAreCheckedInLazyMode() {
+        AtomicInteger calls = new AtomicInteger();
+        Command command = counting(calls).convertLazily(true);
+        BindResult result = command.tryBind(parser.parse("cmd 1 2 -z 3"));
+        assertEquals(Arrays.asList(BindError.Code.ARGUMENTS_AMOUNT, BindError.Code.UNEXPECTED_ARGUMENT),
+                codes(result));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void primitiveSlotsAreFilled() {
+        for (boolean lazy : new boolean[] { false, true }) {
+            Command command = new Command("cmd", "Test", (cli, invocation) -> {
+            }).convertLazily(lazy);
+            command.addArgument(new IntArgument("int", true));
+            command.addArgument(new LongArgument("long", false).setName("l", "long"));
+            command.addArgument(new DoubleArgument("double", false).setName("d", "double"));
+            command.addArgument(new Argument<String>("text", false).setName("t", "text"));
+
+            Invocation full = command.bind(parser.parse("cmd -42 -l 9000000000 -d -1.5 -t word"));
+            assertEquals(-42, full.getInt(0));
+            assertEquals(9000000000L, full.getLong("long"));
+            assertEquals(-1.5, full.getDouble("double"), 0);
+            assertEquals(Integer.valueOf(-42), full.getArg(0));
+            assertEquals(Long.valueOf(9000000000L), full.getArg("long"));
+            assertEquals(Double.valueOf(-1.5), full.getArg("double"));
+            assertEquals("word", full.getArg("text"));
+            assertTrue(full.isFilled("long"));
+
+            Invocation part = command.bind(parser.parse("cmd 5"));
+            assertEquals(5, part.getInt(0));
+            assertFalse(part.isFilled("long"));
+            assertEquals(0, part.getLong("long"));
+            assertEquals(0, part.getDouble("double"), 0);
+            assertNull(part.getArg("long"));
+            assertNull(part.getArg("text"));
+
+            try {
+                full.getInt("long");
+                throw new AssertionError("Long read as int");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().endsWith("is not IntArgument"));
+            }
+        }
+    }
+
+    /**
+     * Command with one free int argument, converter counts calls
+     */
+    private static Command counting(AtomicInteger calls) {
+        Command command = new Command("cmd", "Test", (cli, invocation) -> {
+        });
+        command.addArgument(new IntArgument("value", true).setIntConverter((chars, from, to) -> {
+            calls.incrementAndGet();
+            return Integer.parseInt(chars.subSequence(from, to).toString());
+        }));
+        return command;
+    }
+
+    private String eagerMessage(String line) {
+        return counting(new AtomicInteger()).tryBind(parser.parse(line)).getMessage();
+    }
+
+    private static List<BindError.Code> codes(BindResult result) {
+        List<BindError.Code> codes = new ArrayList<>();
+        for (BindError error : result.getErrors()) {
+            codes.add(error.getCode());
+        }
+        return codes;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.devianta.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Prefix and trigram index of History stays consistent with the lines kept
+ * in ring buffer
+ */
+public class HistoryIndexTest {
+    private static final int CAPACITY = 16;
+
+    @Test
+    public void evictedLinesAreNotFound() {
+        History history = new History(3);
+        history.add("alpha one");
+        history.add("beta two");
+        history.add("alpha three");
+        history.add("gamma four");
+        assertEquals(Arrays.asList("alpha three"), history.findByPrefix("alpha"));
+        assertEquals(Arrays.asList("alpha three"), history.find("alpha"));
+        assertEquals(Arrays.asList("beta two", "alpha three", "gamma four"), history.find(" "));
+        assertEquals("beta two", history.findLast("two"));
+        assertNull(history.findLast("one"));
+    }
+
+    @Test
+    public void repeatedKeysAreRemovedOnce() {
+        History history = new History(2);
+        history.add("aaaaaa");
+        history.add("aaa");
+        history.add("b");
+        assertEquals(Arrays.asList("aaa"), history.find("aaa"));
+        assertEquals(Arrays.asList("aaa"), history.findByPrefix("aa"));
+        history.add("c");
+        assertEquals(0, history.find("aaa").size());
+        assertEquals(0, history.findByPrefix("a").size());
+    }
+
+    @Test
+    public void postingsAreRemovedFromStart() {
+        HistoryIndex index = new HistoryIndex();
+        index.add(1, "abcd");
+        index.add(2, "abce");
+        index.add(3, "xbcd");
+        assertPostings(index.substring("bcd"), 1, 3);
+        assertPostings(index.prefix("abc"), 1, 2);
+        index.remove(1, "abcd");
+        assertPostings(index.substring("bcd"), 3);
+        assertPostings(index.prefix("abc"), 2);
+        assertPostings(index.prefix(""), 2, 3);
+        index.remove(2, "abce");
+        assertPostings(index.prefix("a"));
+        assertPostings(index.substring("abc"));
+        assertNull(index.substring("bc"));
+        index.clear();
+        assertPostings(index.prefix(""));
+        assertPostings(index.substring("xbc"));
+    }
+
+    @Test
+    public void randomUpdatesMatchScan() {
+        Random random = new Random(1);
+        History history = new History(CAPACITY);
+        List<String> lines = new ArrayList<>();
+        for (int n = 0; n < 20000; n++) {
+            if (random.nextInt(500) == 0) {
+                history.clear();
+                lines.clear();
+            }
+            String line = randomLine(random);
+            history.add(line);
+            lines.add(line);
+            if (lines.size() > CAPACITY) {
+                lines.remove(0);
+            }
+
+            String pattern = randomPattern(random, lines);
+            assertEquals(pattern, byPrefix(lines, pattern), history.findByPrefix(pattern));
+            assertEquals(pattern, containing(lines, pattern), history.find(pattern));
+            List<String> found = containing(lines, pattern);
+            assertEquals(pattern, found.isEmpty() ? null : found.get(found.size() - 1), history.findLast(pattern));
+        }
+        assertEquals(lines, history.all());
+    }
+
+    /**
+     * Line of few characters, so keys are shared, sometimes longer than
+     * prefix trie
+     */
+    private static String randomLine(Random random) {
+        int length = random.nextInt(4) == 0 ? HistoryIndex.PREFIX_DEPTH + random.nextInt(8) : random.nextInt(8);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Part of kept line or random string, from empty to longer than prefix
+     * trie
+     */
+    private static String randomPattern(Random random, List<String> lines) {
+        if (random.nextBoolean()) {
+            return randomLine(random);
+        }
+        String line = lines.get(random.nextInt(lines.size()));
+        int from = random.nextBoolean() ? 0 : random.nextInt(line.length() + 1);
+        int to = from + random.nextInt(line.length() - from + 1);
+        return line.substring(from, to);
+    }
+
+    private static List<String> byPrefix(List<String> lines, String prefix) {
+        List<String> list = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith(prefix)) {
+                list.add(line);
+            }
+        }
+        return list;
+    }
+
+    private static List<String> containing(List<String> lines, String pattern) {
+        List<String> list = new ArrayList<>();
+        for (String line : lines) {
+            if (line.contains(pattern)) {
+                list.add(line);
+            }
+        }
+        return list;
+    }
+
+    private static void assertPostings(HistoryIndex.Postings postings, long... seqs) {
+        assertNotNull(postings);
+        long[] actual = new long[postings.size()];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = postings.get(i);
+        }
+        assertEquals(Arrays.toString(seqs), Arrays.toString(actual));
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.devianta.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Ring buffer and journal of History
+ */
+public class HistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ringKeepsLastLines() {
+        History history = new History(5);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            history.add("line " + i);
+            expected.add("line " + i);
+            List<String> last = expected.subList(Math.max(0, expected.size() - 5), expected.size());
+            assertEquals(last, history.all());
+            assertEquals(last.size(), history.size());
+            assertEquals(last.get(0), history.get(0));
+        }
+        assertEquals(Arrays.asList("line 21", "line 22"), history.tail(2));
+        assertEquals(0, history.tail(-1).size());
+    }
+
+    @Test
+    public void clearDropsLines() {
+        History history = new History(3);
+        history.add("a");
+        history.add("b");
+        history.clear();
+        assertEquals(0, history.size());
+        history.add("c");
+        assertEquals(Arrays.asList("c"), history.all());
+    }
+
+    @Test
+    public void journalIsReplayed() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("history");
+        History history = new History(100);
+        history.openJournal(file);
+        for (int i = 0; i < 250; i++) {
+            history.add("line " + i + " \u00e9\u4e2d");
+        }
+        history.closeJournal();
+        assertEquals(250, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+
+        // only the tail which fits is loaded
+        History reopened = new History(100);
+        reopened.openJournal(file);
+        assertEquals(100, reopened.size());
+        assertEquals("line 150 \u00e9\u4e2d", reopened.get(0));
+        assertEquals("line 249 \u00e9\u4e2d", reopened.get(99));
+        reopened.add("after reopen");
+        reopened.closeJournal();
+
+        History last = new History(2);
+        last.openJournal(file);
+        assertEquals(Arrays.asList("line 249 \u00e9\u4e2d", "after reopen"), last.all());
+        last.closeJournal();
+    }
+
+    @Test
+    public void linesOverBufferAreKeptInOrder() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("history");
+        char[] big = new char[100000];
+        Arrays.fill(big, 'x');
+        History history = new History(10000);
+        history.openJournal(file);
+        for (int i = 0; i < 5000; i++) {
+            history.add(i == 2500 ? new String(big) : "line number " + i);
+        }
+        history.closeJournal();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(5000, lines.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i == 2500 ? new String(big) : "line number " + i, lines.get(i));
+        }
+    }
+
+    @Test
+    public void clearTruncatesJournal() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("history");
+        History history = new History(10);
+        history.openJournal(file);
+        history.add("old");
+        history.clear();
+        history.add("new");
+        history.closeJournal();
+
+        History reopened = new History(10);
+        reopened.openJournal(file);
+        assertEquals(Arrays.asList("new"), reopened.all());
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void lastRecordWithoutLineEndIsRead() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("history");
+        Files.write(file, "one\ntwo\nthree".getBytes(StandardCharsets.UTF_8));
+        History history = new History(2);
+        history.openJournal(file);
+        assertEquals(Arrays.asList("two", "three"), history.all());
+        history.closeJournal();
+        assertTrue(Files.size(file) > 0);
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.devianta.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * ScanParser gives the same LineArgs as Parser, the reference
+ * implementation
+ */
+public class ScanParserTest {
+    private static final String[] TRICKY = {
+            "",
+            "   ",
+            "cmd",
+            "  cmd  ",
+            "cmd a b c",
+            "cmd\ta\n b",
+            "cmd -n",
+            "cmd -n value",
+            "cmd -n -m",
+            "cmd -n -m value free",
+            "cmd free -n",
+            "cmd -1",
+            "cmd -n -1",
+            "cmd -n -1.5e3",
+            "cmd -n - ",
+            "cmd -n -.5",
+            "cmd -n 1e",
+            "cmd -n NaN",
+            "cmd -n -Infinity",
+            "cmd -n 0x10",
+            "cmd -n 1d",
+            "cmd -n 1.f",
+            "cmd --long value",
+            "cmd -",
+            "cmd \"quoted word\"",
+            "cmd \"\"",
+            "cmd \"\" \"\"",
+            "cmd a \"\"",
+            "cmd \"\" a",
+            "cmd \"a\"\"b\"",
+            "cmd -n \"quoted value\"",
+            "cmd -n \"-not name\"",
+            "cmd \"-n\" value",
+            "\"cmd\" a",
+            "-cmd a",
+            "cmd a\"b c\"d",
+            "cmd \"  spaced  \"",
+            "cmd @file",
+            "cmd -n @file",
+            "cmd \"@file\"",
+            "cmd @",
+            "cmd a | b",
+            "cmd \"a | b\" &",
+    };
+
+    private static final String[] INVALID = { "cmd \"", "cmd \"a\" \"", "\"" };
+
+    @Test
+    public void trickyLinesMatchParser() {
+        for (String line : TRICKY) {
+            assertEquals(line, describe(new Parser(), line), describe(new ScanParser(), line));
+        }
+    }
+
+    @Test
+    public void unbalancedQuotesAreRejected() {
+        for (String line : INVALID) {
+            assertEquals(line, "error: Unexpected string delimiter", describe(new ScanParser(), line));
+            assertEquals(line, describe(new Parser(), line), describe(new ScanParser(), line));
+        }
+    }
+
+    @Test
+    public void randomLinesMatchParser() {
+        char[] alphabet = { 'a', 'b', '-', '-', '"', '"', '1', '.', 'e', ' ', ' ', ' ', '\t', '@', '|', '&', '+' };
+        Random random = new Random(1);
+        for (int n = 0; n < 50000; n++) {
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                line.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String str = line.toString();
+            assertEquals(str, describe(new Parser(), str), describe(new ScanParser(), str));
+        }
+    }
+
+    @Test
+    public void reusedArgsMatchNewArgs() {
+        ScanParser parser = new ScanParser();
+        LineArgs args = new LineArgs();
+        for (String line : TRICKY) {
+            parser.parse("old -x 1 \"y\" z", args);
+            assertEquals(line, describe(parser.parse(line)), describe(parser.parse(line, args)));
+        }
+    }
+
+    @Test
+    public void fileReferencesAreUnquotedValues() {
+        LineArgs args = new ScanParser(true).parse("cmd @in \"@quoted\" @ -n @named -m \"@value\"");
+        assertEquals(3, args.getFreeArgCount());
+        assertTrue(args.isFreeFile(0));
+        assertEquals("@in", args.getFreeValue(0));
+        assertFalse(args.isFreeFile(1));
+        assertEquals("@quoted", args.getFreeValue(1));
+        assertFalse(args.isFreeFile(2));
+        assertEquals("@", args.getFreeValue(2));
+        assertTrue(args.isNamedFile(0));
+        assertEquals("@named", args.getNamedValue("n"));
+        assertFalse(args.isNamedFile(1));
+        assertEquals("@value", args.getNamedValue("m"));
+
+        LineArgs plain = new ScanParser(false).parse("cmd @in");
+        assertFalse(plain.isFreeFile(0));
+        assertEquals("@in", plain.getFreeValue(0));
+    }
+
+    @Test
+    public void pipesAreSplitOutsideQuotes() {
+        assertEquals(Arrays.asList("a"), Pipeline.split("a"));
+        assertEquals(Arrays.asList("a ", " b -n 1 ", " c"), Pipeline.split("a | b -n 1 | c"));
+        assertEquals(Arrays.asList("a \"x|y\" ", " b"), Pipeline.split("a \"x|y\" | b"));
+        assertEquals(Arrays.asList("a \"|\""), Pipeline.split("a \"|\""));
+        for (String line : new String[] { "a |", "| b", "a || b", "a | \t | b" }) {
+            try {
+                Pipeline.split(line);
+                throw new AssertionError("Accepted: " + line);
+            } catch (IllegalArgumentException e) {
+                assertEquals("Empty command in pipeline", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Return parsed line or error, in the same form for both parsers
+     */
+    private static String describe(ArgParser parser, String line) {
+        try {
+            return describe(parser.parse(line));
+        } catch (IllegalArgumentException e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    private static String describe(LineArgs args) {
+        List<String> parts = new ArrayList<>();
+        parts.add("command=[" + args.getCommand() + "]");
+        for (int i = 0; i < args.getFreeArgCount(); i++) {
+            parts.add("free=[" + args.getFreeValue(i) + "]");
+        }
+        for (int i = 0; i < args.getNamedArgCount(); i++) {
+            parts.add("named=[" + args.getArgName(i) + "]=[" + args.getNamedValue(i) + "]");
+        }
+        return parts.toString();
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.devianta.command.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.devianta.command.CLI;
+
+/**
+ * Compile {@code @Command} classes with CommandProcessor and run generated
+ * commands
+ */
+public class CommandProcessorTest {
+    private static final String TOOLS = String.join("\n",
+            "package demo;",
+            "",
+            "import com.devianta.command.Output;",
+            "import com.devianta.command.annotation.Command;",
+            "import com.devianta.command.annotation.Option;",
+            "import com.devianta.command.annotation.Param;",
+            "",
+            "public class Tools {",
+            "    private final String prefix;",
+            "",
+            "    public Tools(String prefix) {",
+            "        this.prefix = prefix;",
+            "    }",
+            "",
+            "    @Command(name = \"greet\", description = \"Say hello\", synonyms = \"hi\")",
+            "    public void greet(@Param String who, @Param(required = false) Integer times,",
+            "            @Option(name = \"loud\", shortName = \"l\") boolean loud, Output out) {",
+            "        for (int i = 0; i < (times == null ? 1 : times); i++) {",
+            "            out.println(prefix + (loud ? who.toUpperCase() : who));",
+            "        }",
+            "    }",
+            "",
+            "    @Command(name = \"sum\")",
+            "    static long sum(@Param int a, @Param long b, @Option(name = \"extra\") Double extra) {",
+            "        return a + b + (extra == null ? 0 : extra.longValue());",
+            "    }",
+            "}");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void generatedCommandsRun() throws Exception {
+        File out = folder.newFolder("classes");
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(out, "demo.Tools", TOOLS);
+        assertTrue(diagnostics.getDiagnostics().toString(), diagnostics.getDiagnostics().isEmpty());
+        assertTrue(new File(out, "demo/ToolsCommands.class").isFile());
+
+        StringBuffer output = new StringBuffer();
+        CLI cli = new CLI().setName("test");
+        cli.setOutput(output::append);
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { out.toURI().toURL() },
+                CLI.class.getClassLoader())) {
+            Class<?> tools = loader.loadClass("demo.Tools");
+            Object target = tools.getConstructor(String.class).newInstance("hello ");
+            loader.loadClass("demo.ToolsCommands").getMethod("register", CLI.class, tools).invoke(null, cli,
+                    target);
+
+            assertEquals("hello world\n", run(cli, output, "greet world"));
+            assertEquals("hello WORLD\nhello WORLD\n", run(cli, output, "hi world 2 -l"));
+            assertEquals("6\n", run(cli, output, "sum 2 3 -extra 1.5"));
+            assertTrue(run(cli, output, "sum 2").startsWith("Unsupported arguments amount"));
+        }
+    }
+
+    @Test
+    public void clashingBinderNamesAreReported() throws Exception {
+        String source = String.join("\n",
+                "package demo;",
+                "",
+                "import com.devianta.command.annotation.Command;",
+                "",
+                "class Case {",
+                "    @Command(name = \"foo\") static void foo() {}",
+                "    @Command(name = \"Foo\") static void Foo() {}",
+                "}");
+        File out = folder.newFolder("classes");
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(out, "demo.Case", source);
+        assertEquals(1, errors(diagnostics).size());
+        assertTrue(errors(diagnostics).get(0).contains("differ not only in case"));
+        assertFalse(new File(out, "demo/CaseCommands.class").exists());
+    }
+
+    @Test
+    public void misplacedParameterIsReported() throws Exception {
+        String source = String.join("\n",
+                "package demo;",
+                "",
+                "import com.devianta.command.annotation.Param;",
+                "",
+                "class Plain {",
+                "    void run(@Param String value) {}",
+                "}");
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(folder.newFolder("classes"), "demo.Plain",
+                source);
+        assertEquals(1, errors(diagnostics).size());
+        assertTrue(errors(diagnostics).get(0).contains("should belong to @Command method"));
+    }
+
+    /**
+     * Run line and return its output
+     */
+    private static String run(CLI cli, StringBuffer output, String line) throws Exception {
+        output.setLength(0);
+        Method runLine = CLI.class.getDeclaredMethod("runLine", String.class);
+        runLine.setAccessible(true);
+        runLine.invoke(cli, line);
+        return output.toString();
+    }
+
+    private static DiagnosticCollector<JavaFileObject> compile(File out, String className, String source)
+            throws IOException, URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        String classpath = new File(CLI.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .getPath();
+        List<String> options = Arrays.asList("-classpath", classpath, "-d", out.getPath());
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics, options, null,
+                    Collections.singletonList(new Source(className, source)));
+            task.setProcessors(Collections.singletonList(new CommandProcessor()));
+            task.call();
+        }
+        return diagnostics;
+    }
+
+    private static List<String> errors(DiagnosticCollector<JavaFileObject> diagnostics) {
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Source held in memory
+     */
+    private static final class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        private Source(String className, String code) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+}